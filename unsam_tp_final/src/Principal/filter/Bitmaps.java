@@ -0,0 +1,68 @@
+// Bitmaps.java - clase o interfaz de core
+package Principal.filter;
+
+/**
+ * Operaciones sobre mapas de bits long[] de filas: el bit i está en la palabra i / 64.
+ */
+public final class Bitmaps {
+
+    private Bitmaps() { }
+
+    public static int words(int count) {
+        return (count + 63) >>> 6;
+    }
+
+    /**
+     * Bits válidos de la palabra w en un mapa de count filas (todos salvo en la última palabra).
+     */
+    public static long wordMask(int w, int count) {
+        int bits = count - (w << 6);
+        return bits >= 64 ? -1L : (1L << bits) - 1;
+    }
+
+    /**
+     * Mapa con las count filas encendidas.
+     */
+    public static long[] all(int count) {
+        long[] words = new long[words(count)];
+        for (int w = 0; w < words.length; w++) {
+            words[w] = wordMask(w, count);
+        }
+        return words;
+    }
+
+    public static int cardinality(long[] words) {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Índices de los bits encendidos, en orden.
+     */
+    public static int[] toIndexes(long[] words) {
+        int[] indexes = new int[cardinality(words)];
+        int n = 0;
+        for (int w = 0; w < words.length; w++) {
+            long bits = words[w];
+            while (bits != 0) {
+                indexes[n++] = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+        }
+        return indexes;
+    }
+
+    /**
+     * Mapa de count filas con los bits de indexes encendidos.
+     */
+    public static long[] fromIndexes(int[] indexes, int count) {
+        long[] words = new long[words(count)];
+        for (int index : indexes) {
+            words[index >>> 6] |= 1L << index;
+        }
+        return words;
+    }
+}
@@ -0,0 +1,102 @@
+// ColumnScan.java - clase o interfaz de core
+package Principal.filter;
+
+import java.util.function.BooleanSupplier;
+
+import Principal.table.storage.ColumnVector;
+
+/**
+ * Filtro compilado sobre una sola columna que, en evaluate, recorre el vector de a 64 filas
+ * y arma cada palabra del mapa de bits sin saltos (scanWord). Las celdas NA se corrigen
+ * después con el resultado que corresponde a NA, solo si la columna tiene alguna.
+ * Las palabras de la máscara con pocas filas elegidas (por ejemplo, después de un AND
+ * muy selectivo) se evalúan fila por fila en lugar de recorrer las 64.
+ */
+abstract class ColumnScan implements CompiledFilter {
+    // Con hasta esta cantidad de filas elegidas en una palabra conviene evaluarlas de a una
+    private static final int SPARSE_BITS = 8;
+
+    private final ColumnVector vector;
+    // Evaluación fila por fila, con NA incluido
+    private final CompiledFilter row;
+    // Resultado para una celda NA (puede lanzar si el operador no admite NA)
+    private final BooleanSupplier naResult;
+    // Si el operador no puede fallar con NA (EQ / EN) o la columna no tiene NA
+    private final boolean reorderable;
+
+    ColumnScan(ColumnVector vector, CompiledFilter row, BooleanSupplier naResult, boolean naSafe) {
+        this.vector = vector;
+        this.row = row;
+        this.naResult = naResult;
+        this.reorderable = naSafe || !vector.hasNA();
+    }
+
+    /**
+     * Bits de las n filas desde from (bit b = fila from + b), sin mirar el mapa de NA.
+     */
+    abstract long scanWord(int[] positions, int from, int n);
+
+    // Posición física de la fila i
+    static int at(int[] positions, int i) {
+        return positions == null ? i : positions[i];
+    }
+
+    @Override
+    public boolean test(int position) {
+        return row.test(position);
+    }
+
+    @Override
+    public boolean reorderable() {
+        return reorderable;
+    }
+
+    @Override
+    public long[] evaluate(int[] positions, int count, long[] mask) {
+        long[] words = new long[Bitmaps.words(count)];
+        boolean hasNA = vector.hasNA();
+        for (int w = 0; w < words.length; w++) {
+            long selected = mask == null ? Bitmaps.wordMask(w, count) : mask[w];
+            if (selected == 0) {
+                continue;
+            }
+            int from = w << 6;
+            if (Long.bitCount(selected) <= SPARSE_BITS) {
+                words[w] = testBits(positions, from, selected);
+                continue;
+            }
+            long bits = scanWord(positions, from, Math.min(64, count - from));
+            if (hasNA) {
+                bits = fixNA(positions, from, selected, bits);
+            }
+            words[w] = bits & selected;
+        }
+        return words;
+    }
+
+    private long testBits(int[] positions, int from, long selected) {
+        long bits = 0;
+        long pending = selected;
+        while (pending != 0) {
+            int b = Long.numberOfTrailingZeros(pending);
+            if (row.test(at(positions, from + b))) {
+                bits |= 1L << b;
+            }
+            pending &= pending - 1;
+        }
+        return bits;
+    }
+
+    private long fixNA(int[] positions, int from, long selected, long bits) {
+        long pending = selected;
+        while (pending != 0) {
+            int b = Long.numberOfTrailingZeros(pending);
+            int i = from + b;
+            if (vector.isNA(at(positions, i))) {
+                bits = naResult.getAsBoolean() ? bits | (1L << b) : bits & ~(1L << b);
+            }
+            pending &= pending - 1;
+        }
+        return bits;
+    }
+}
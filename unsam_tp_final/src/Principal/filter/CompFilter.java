@@ -1,14 +1,30 @@
 package Principal.filter;
 
 import java.util.*;
+import java.util.function.IntFunction;
+import Principal.table.DataTable;
 import Principal.table.Row;
 import utils.enums.LogicalOperator;
 
 public class CompFilter implements Filter {
     private final List<Filter> filters;
     private final LogicalOperator logicalOp;
+    // Si al compilarlo los hijos de AND / OR se reordenan según lo que se mide al evaluarlos
+    private final boolean adaptive;
 
     public CompFilter(List<Filter> filters, LogicalOperator logicalOp) {
+        this(filters, logicalOp, false);
+    }
+
+    /**
+     * @param adaptive Si es true, al filtrar una tabla se mide en una muestra de bloques de
+     *                 filas cuánto tarda cada hijo y cuántas filas deja pasar, y los hijos de
+     *                 AND / OR (ya aplanados) se reordenan para cortar antes: primero los
+     *                 baratos que descartan más en AND, o que aceptan más en OR. Solo se mueven
+     *                 los hijos que no pueden fallar ni tener efectos (ver CompiledFilter.reorderable),
+     *                 así que el resultado es el mismo que en el orden original.
+     */
+    public CompFilter(List<Filter> filters, LogicalOperator logicalOp, boolean adaptive) {
         if (logicalOp == LogicalOperator.NOT && filters.size() != 1) {
             throw new IllegalArgumentException("NOT debe recibir exactamente un filtro");
         }
@@ -17,6 +33,7 @@ public class CompFilter implements Filter {
         }
         this.filters = filters;
         this.logicalOp = logicalOp;
+        this.adaptive = adaptive;
     }
 
     @Override
@@ -38,4 +55,342 @@ public class CompFilter implements Filter {
                 throw new UnsupportedOperationException("Operador lógico no soportado");
         }
     }
+
+    /**
+     * "(AND f1 f2 ...)", "(OR ...)" o "(NOT f)" con las formas de los hijos, aplanando los
+     * AND dentro de AND y los OR dentro de OR y sacando NOT de NOT, como compile.
+     * adaptive no cambia el resultado, así que no forma parte. null si algún hijo no tiene forma.
+     */
+    @Override
+    public String canonicalForm() {
+        if (logicalOp == LogicalOperator.NOT) {
+            Filter inner = filters.get(0);
+            if (inner instanceof CompFilter && ((CompFilter) inner).logicalOp == LogicalOperator.NOT) {
+                return ((CompFilter) inner).filters.get(0).canonicalForm();
+            }
+            String form = inner.canonicalForm();
+            return form == null ? null : "(NOT " + form + ")";
+        }
+        StringBuilder out = new StringBuilder("(").append(logicalOp);
+        return appendForms(out) ? out.append(')').toString() : null;
+    }
+
+    private boolean appendForms(StringBuilder out) {
+        for (Filter f : filters) {
+            if (f instanceof CompFilter && ((CompFilter) f).logicalOp == logicalOp) {
+                if (!((CompFilter) f).appendForms(out)) return false;
+                continue;
+            }
+            String form = f.canonicalForm();
+            if (form == null) return false;
+            out.append(' ').append(form);
+        }
+        return true;
+    }
+
+    /**
+     * Compila los hijos y aplana los AND dentro de AND y los OR dentro de OR en un solo
+     * arreglo, que se recorre en el mismo orden y con el mismo cortocircuito que apply.
+     * NOT de NOT se compila como el filtro de adentro.
+     * En evaluate, AND, OR y NOT combinan los mapas de bits de los hijos palabra por palabra;
+     * cada hijo recibe como máscara las filas que todavía pueden cambiar el resultado.
+     */
+    @Override
+    public CompiledFilter compile(DataTable table, IntFunction<Row> rowAt) {
+        if (logicalOp == LogicalOperator.NOT) {
+            Filter inner = filters.get(0);
+            if (inner instanceof CompFilter && ((CompFilter) inner).logicalOp == LogicalOperator.NOT) {
+                return ((CompFilter) inner).filters.get(0).compile(table, rowAt);
+            }
+            return new Not(inner.compile(table, rowAt));
+        }
+        List<CompiledFilter> flat = new ArrayList<>();
+        flatten(table, rowAt, flat);
+        CompiledFilter[] parts = flat.toArray(new CompiledFilter[0]);
+        if (adaptive) {
+            return new Adaptive(parts, logicalOp == LogicalOperator.AND);
+        }
+        return logicalOp == LogicalOperator.AND ? new And(parts) : new Or(parts);
+    }
+
+    // Hijos compilados, entrando en los CompFilter con el mismo operador que este
+    private void flatten(DataTable table, IntFunction<Row> rowAt, List<CompiledFilter> out) {
+        for (Filter f : filters) {
+            if (f instanceof CompFilter && ((CompFilter) f).logicalOp == logicalOp) {
+                ((CompFilter) f).flatten(table, rowAt, out);
+            } else {
+                out.add(f.compile(table, rowAt));
+            }
+        }
+    }
+
+    @Override
+    public Set<String> referencedColumns() {
+        Set<String> columns = new LinkedHashSet<>();
+        for (Filter f : filters) {
+            Set<String> referenced = f.referencedColumns();
+            if (referenced == null) {
+                return null;
+            }
+            columns.addAll(referenced);
+        }
+        return columns;
+    }
+
+    private static final class And implements CompiledFilter {
+        private final CompiledFilter[] parts;
+
+        And(CompiledFilter[] parts) {
+            this.parts = parts;
+        }
+
+        @Override
+        public boolean test(int position) {
+            for (CompiledFilter part : parts) {
+                if (!part.test(position)) return false;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean reorderable() {
+            return allReorderable(parts);
+        }
+
+        // Cada hijo se evalúa solo sobre las filas que pasaron los anteriores
+        @Override
+        public long[] evaluate(int[] positions, int count, long[] mask) {
+            long[] result = mask;
+            for (CompiledFilter part : parts) {
+                result = part.evaluate(positions, count, result);
+            }
+            return result;
+        }
+    }
+
+    private static final class Or implements CompiledFilter {
+        private final CompiledFilter[] parts;
+
+        Or(CompiledFilter[] parts) {
+            this.parts = parts;
+        }
+
+        @Override
+        public boolean test(int position) {
+            for (CompiledFilter part : parts) {
+                if (part.test(position)) return true;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean reorderable() {
+            return allReorderable(parts);
+        }
+
+        // Cada hijo se evalúa solo sobre las filas que todavía no pasaron
+        @Override
+        public long[] evaluate(int[] positions, int count, long[] mask) {
+            long[] result = new long[Bitmaps.words(count)];
+            long[] pending = mask == null ? Bitmaps.all(count) : mask.clone();
+            for (CompiledFilter part : parts) {
+                long[] passed = part.evaluate(positions, count, pending);
+                for (int w = 0; w < result.length; w++) {
+                    result[w] |= passed[w];
+                    pending[w] &= ~passed[w];
+                }
+            }
+            return result;
+        }
+    }
+
+    private static final class Not implements CompiledFilter {
+        private final CompiledFilter inner;
+
+        Not(CompiledFilter inner) {
+            this.inner = inner;
+        }
+
+        @Override
+        public boolean test(int position) {
+            return !inner.test(position);
+        }
+
+        @Override
+        public boolean reorderable() {
+            return inner.reorderable();
+        }
+
+        @Override
+        public long[] evaluate(int[] positions, int count, long[] mask) {
+            long[] result = inner.evaluate(positions, count, mask);
+            for (int w = 0; w < result.length; w++) {
+                result[w] = ~result[w] & (mask == null ? Bitmaps.wordMask(w, count) : mask[w]);
+            }
+            return result;
+        }
+    }
+
+    private static boolean allReorderable(CompiledFilter[] parts) {
+        for (CompiledFilter part : parts) {
+            if (!part.reorderable()) return false;
+        }
+        return true;
+    }
+
+    /**
+     * AND / OR que cambia el orden de sus hijos mientras evalúa. Las filas se evalúan en
+     * bloques de BLOCK_ROWS; en los primeros bloques y después en uno de cada SAMPLE_EVERY
+     * se mide, para cada hijo, el tiempo por fila y la fracción de filas que pasan, y se
+     * reordena por costo / (1 - pasan) en AND o costo / pasan en OR.
+     * Los hijos que no son reorderable quedan fijos en su lugar y solo se reordenan los
+     * tramos de hijos que están entre ellos. Se puede evaluar desde varios hilos a la vez.
+     */
+    private static final class Adaptive implements CompiledFilter {
+        private static final int BLOCK_ROWS = 1 << 14;
+        private static final int WARMUP_BLOCKS = 2;
+        private static final int SAMPLE_EVERY = 8;
+
+        private final CompiledFilter[] parts;
+        private final boolean and;
+        private final boolean[] movable;
+        // Totales medidos por hijo en los bloques de muestra
+        private final long[] nanos;
+        private final long[] rowsIn;
+        private final long[] rowsPassed;
+        private volatile int[] order;
+        private int blocks;
+
+        Adaptive(CompiledFilter[] parts, boolean and) {
+            this.parts = parts;
+            this.and = and;
+            this.movable = new boolean[parts.length];
+            for (int k = 0; k < parts.length; k++) {
+                movable[k] = parts[k].reorderable();
+            }
+            this.nanos = new long[parts.length];
+            this.rowsIn = new long[parts.length];
+            this.rowsPassed = new long[parts.length];
+            int[] initial = new int[parts.length];
+            for (int k = 0; k < initial.length; k++) {
+                initial[k] = k;
+            }
+            this.order = initial;
+        }
+
+        @Override
+        public boolean test(int position) {
+            for (int k : order) {
+                if (parts[k].test(position) != and) return !and;
+            }
+            return and;
+        }
+
+        @Override
+        public boolean reorderable() {
+            return allReorderable(parts);
+        }
+
+        @Override
+        public long[] evaluate(int[] positions, int count, long[] mask) {
+            if (count <= BLOCK_ROWS) {
+                return evaluateBlock(positions, count, mask);
+            }
+            // Bloques alineados a 64 filas: cada uno ocupa palabras enteras del resultado
+            long[] result = new long[Bitmaps.words(count)];
+            int[] block = new int[BLOCK_ROWS];
+            for (int from = 0; from < count; from += BLOCK_ROWS) {
+                int n = Math.min(BLOCK_ROWS, count - from);
+                for (int i = 0; i < n; i++) {
+                    block[i] = positions == null ? from + i : positions[from + i];
+                }
+                int word = from >>> 6;
+                long[] blockMask = mask == null ? null : Arrays.copyOfRange(mask, word, word + Bitmaps.words(n));
+                long[] bits = evaluateBlock(block, n, blockMask);
+                System.arraycopy(bits, 0, result, word, bits.length);
+            }
+            return result;
+        }
+
+        private long[] evaluateBlock(int[] positions, int count, long[] mask) {
+            int[] current = order;
+            boolean sample = nextIsSample();
+            long[] result = and ? mask : new long[Bitmaps.words(count)];
+            long[] pending = and ? null : (mask == null ? Bitmaps.all(count) : mask.clone());
+            long[] stats = sample ? new long[3 * current.length] : null;
+            for (int j = 0; j < current.length; j++) {
+                CompiledFilter part = parts[current[j]];
+                long[] input = and ? result : pending;
+                long start = 0;
+                if (sample) {
+                    stats[3 * j] = input == null ? count : Bitmaps.cardinality(input);
+                    start = System.nanoTime();
+                }
+                long[] passed = part.evaluate(positions, count, input);
+                if (sample) {
+                    stats[3 * j + 1] = System.nanoTime() - start;
+                    stats[3 * j + 2] = Bitmaps.cardinality(passed);
+                }
+                if (and) {
+                    result = passed;
+                } else {
+                    for (int w = 0; w < result.length; w++) {
+                        result[w] |= passed[w];
+                        pending[w] &= ~passed[w];
+                    }
+                }
+            }
+            if (sample) {
+                record(current, stats);
+            }
+            return result;
+        }
+
+        private synchronized boolean nextIsSample() {
+            int block = blocks++;
+            return block < WARMUP_BLOCKS || block % SAMPLE_EVERY == 0;
+        }
+
+        // Suma las mediciones de un bloque y recalcula el orden
+        private synchronized void record(int[] measured, long[] stats) {
+            for (int j = 0; j < measured.length; j++) {
+                int k = measured[j];
+                rowsIn[k] += stats[3 * j];
+                nanos[k] += stats[3 * j + 1];
+                rowsPassed[k] += stats[3 * j + 2];
+            }
+            double[] rank = new double[parts.length];
+            for (int k = 0; k < parts.length; k++) {
+                if (rowsIn[k] == 0) {
+                    // Nunca recibió filas: no hay con qué compararlo, va al final de su tramo
+                    rank[k] = Double.MAX_VALUE;
+                    continue;
+                }
+                double cost = (double) nanos[k] / rowsIn[k];
+                double pass = (double) rowsPassed[k] / rowsIn[k];
+                double decisive = and ? 1 - pass : pass;
+                rank[k] = cost / Math.max(decisive, 1e-6);
+            }
+            Integer[] next = new Integer[parts.length];
+            for (int j = 0; j < next.length; j++) {
+                next[j] = order[j];
+            }
+            // Ordenar cada tramo de hijos movibles, sin cruzar los que quedan fijos
+            for (int from = 0; from < next.length; ) {
+                if (!movable[next[from]]) {
+                    from++;
+                    continue;
+                }
+                int to = from;
+                while (to < next.length && movable[next[to]]) to++;
+                Arrays.sort(next, from, to, (a, b) -> Double.compare(rank[a], rank[b]));
+                from = to;
+            }
+            int[] updated = new int[next.length];
+            for (int j = 0; j < next.length; j++) {
+                updated[j] = next[j];
+            }
+            order = updated;
+        }
+    }
 }
@@ -0,0 +1,45 @@
+// CompiledFilter.java - clase o interfaz de core
+package Principal.filter;
+
+/**
+ * Filtro ya ligado a las columnas de una tabla (ver Filter.compile): evalúa una fila
+ * a partir de su posición física en los vectores, sin buscar columnas ni armar objetos.
+ * Vale para la tabla con la que se compiló, mientras no se modifiquen sus celdas.
+ */
+@FunctionalInterface
+public interface CompiledFilter {
+
+    boolean test(int position);
+
+    /**
+     * Evalúa el filtro sobre muchas filas a la vez y devuelve un mapa de bits: el bit i
+     * (palabra i / 64) queda encendido si pasa la fila en la posición física positions[i],
+     * o i si positions es null. Solo se evalúan las filas con su bit encendido en mask
+     * (null = las count filas); las demás quedan en 0, así AND, OR y NOT respetan el mismo
+     * cortocircuito que apply. Por defecto llama a test fila por fila.
+     */
+    default long[] evaluate(int[] positions, int count, long[] mask) {
+        long[] words = new long[Bitmaps.words(count)];
+        for (int w = 0; w < words.length; w++) {
+            long bits = mask == null ? Bitmaps.wordMask(w, count) : mask[w];
+            while (bits != 0) {
+                int i = (w << 6) + Long.numberOfTrailingZeros(bits);
+                if (test(positions == null ? i : positions[i])) {
+                    words[w] |= 1L << i;
+                }
+                bits &= bits - 1;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * true si evaluar el filtro no puede lanzar excepciones ni tener efectos, así que se puede
+     * evaluar antes o después que otros filtros (y sobre otras filas) sin cambiar el resultado.
+     * Por defecto false.
+     */
+    default boolean reorderable() {
+        return false;
+    }
+
+}
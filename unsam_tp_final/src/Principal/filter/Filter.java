@@ -1,10 +1,41 @@
 // Filter.java - clase o interfaz de core
 package Principal.filter;
 
+import java.util.Set;
+import java.util.function.IntFunction;
+
+import Principal.table.DataTable;
 import Principal.table.Row;
 
 public interface Filter{
 
     boolean apply(Row row);
 
+    /**
+     * Columnas que el filtro lee, para que un lector pueda parsear solo esas antes de
+     * decidir si conserva la fila. null si no se sabe (se asume que lee todas).
+     */
+    default Set<String> referencedColumns() {
+        return null;
+    }
+
+    /**
+     * Liga el filtro a las columnas de la tabla una sola vez, para evaluarlo fila por fila
+     * por posición física. Por defecto arma la fila y llama a apply.
+     * @param rowAt Fila de la tabla en una posición física
+     * @throws IllegalArgumentException si el filtro usa una columna que la tabla no tiene
+     */
+    default CompiledFilter compile(DataTable table, IntFunction<Row> rowAt) {
+        return position -> apply(rowAt.apply(position));
+    }
+
+    /**
+     * Forma canónica: el mismo texto para dos filtros con la misma estructura (columnas,
+     * operadores, valores y operadores lógicos), para usar como clave de DataTable.enableFilterCache.
+     * null si no se puede describir (por ejemplo, una lambda); esos filtros no se guardan.
+     */
+    default String canonicalForm() {
+        return null;
+    }
+
 }
\ No newline at end of file
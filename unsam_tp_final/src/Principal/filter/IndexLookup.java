@@ -0,0 +1,142 @@
+// IndexLookup.java - clase o interfaz de core
+package Principal.filter;
+
+import Principal.table.storage.ColumnIndex;
+import Principal.table.storage.ColumnVector;
+import utils.enums.Operator;
+
+/**
+ * SimpleFilter compilado sobre una columna con índice: evaluate pide al índice las
+ * posiciones que cumplen la condición y enciende sus bits, sin recorrer la columna.
+ * EN se resuelve como el complemento de EQ (las celdas NA no son iguales a nada).
+ * Con rangos sobre una columna con NA se recorre la columna igual que sin índice, para
+ * que comparar contra NA falle en las mismas filas que con apply.
+ * La consulta al índice y el mapa de bits de las posiciones físicas se arman una sola vez
+ * por filtrado y los comparten las partes de filter(filter, parallelism). Si el mapa todavía
+ * no existe y la parte tiene muchas menos filas que el índice devuelve, recorrer la parte
+ * es más barato que armarlo.
+ */
+final class IndexLookup implements CompiledFilter {
+    // Armar el mapa cuesta del orden de (hits + filas del vector / 64); por encima de
+    // esta cantidad de veces las filas de la parte, conviene recorrer la parte
+    private static final int SCAN_RATIO = 4;
+
+    private final CompiledFilter scan;
+    private final ColumnVector vector;
+    private final ColumnIndex index;
+    private final Operator operator;
+    private final Object value;
+    // Compartidos entre las partes; se calculan la primera vez que hacen falta
+    private boolean looked;
+    private int[] hits;
+    private long[] physical;
+
+    IndexLookup(CompiledFilter scan, ColumnVector vector, ColumnIndex index, Operator operator, Object value) {
+        this.scan = scan;
+        this.vector = vector;
+        this.index = index;
+        this.operator = operator;
+        this.value = value;
+    }
+
+    @Override
+    public boolean test(int position) {
+        return scan.test(position);
+    }
+
+    @Override
+    public boolean reorderable() {
+        return scan.reorderable();
+    }
+
+    @Override
+    public long[] evaluate(int[] positions, int count, long[] mask) {
+        boolean equality = operator == Operator.EQ || operator == Operator.EN;
+        if (!equality && vector.hasNA()) {
+            return scan.evaluate(positions, count, mask);
+        }
+        int[] found = hits(equality ? Operator.EQ : operator);
+        if (found == null) {
+            return scan.evaluate(positions, count, mask);
+        }
+
+        long[] words = new long[Bitmaps.words(count)];
+        if (positions == null) {
+            // Las posiciones de la tabla son las físicas
+            for (int pos : found) {
+                words[pos >>> 6] |= 1L << pos;
+            }
+        } else {
+            long[] bits = physical(found, count);
+            if (bits == null) {
+                return scan.evaluate(positions, count, mask);
+            }
+            if (isRange(positions, count)) {
+                // Parte de una tabla sin selección: copiar los bits del rango de a palabras
+                copyRange(bits, positions[0], words, count);
+            } else {
+                // Vista: buscar cada fila de la vista en el mapa de posiciones físicas
+                for (int i = 0; i < count; i++) {
+                    int pos = positions[i];
+                    words[i >>> 6] |= ((bits[pos >>> 6] >>> pos) & 1L) << i;
+                }
+            }
+        }
+        boolean negate = operator == Operator.EN;
+        for (int w = 0; w < words.length; w++) {
+            long selected = mask == null ? Bitmaps.wordMask(w, count) : mask[w];
+            words[w] = (negate ? ~words[w] : words[w]) & selected;
+        }
+        return words;
+    }
+
+    private synchronized int[] hits(Operator op) {
+        if (!looked) {
+            hits = index.lookup(op, value);
+            looked = true;
+        }
+        return hits;
+    }
+
+    /**
+     * Mapa de las posiciones físicas encontradas, o null si todavía no se armó y para una
+     * parte de count filas sale más barato recorrerla.
+     */
+    private synchronized long[] physical(int[] found, int count) {
+        if (physical == null) {
+            long cost = found.length + (long) Bitmaps.words(vector.size());
+            if (cost > (long) SCAN_RATIO * count) {
+                return null;
+            }
+            long[] bits = new long[Bitmaps.words(vector.size())];
+            for (int pos : found) {
+                bits[pos >>> 6] |= 1L << pos;
+            }
+            physical = bits;
+        }
+        return physical;
+    }
+
+    // true si las posiciones son consecutivas y crecientes
+    private static boolean isRange(int[] positions, int count) {
+        if (count == 0) {
+            return false;
+        }
+        int first = positions[0];
+        for (int i = 1; i < count; i++) {
+            if (positions[i] != first + i) return false;
+        }
+        return true;
+    }
+
+    // Bits [from, from + count) de source, desde el bit 0 de target
+    private static void copyRange(long[] source, int from, long[] target, int count) {
+        int word = from >>> 6;
+        int shift = from & 63;
+        for (int w = 0; w < target.length; w++) {
+            long low = source[word + w] >>> shift;
+            long high = shift == 0 || word + w + 1 >= source.length ? 0 : source[word + w + 1] << (64 - shift);
+            target[w] = (low | high) & Bitmaps.wordMask(w, count);
+        }
+    }
+}
@@ -1,15 +1,57 @@
 // SimpleFilter.java - clase o interfaz de core
 package Principal.filter;
 
+import Principal.table.DataTable;
 import Principal.table.Row;
+import Principal.table.Schema;
+import Principal.table.storage.CategoricalVector;
+import Principal.table.storage.ColumnIndex;
+import Principal.table.storage.ColumnVector;
+import Principal.table.storage.DoubleVector;
+import Principal.table.storage.FloatVector;
+import Principal.table.storage.IntVector;
+import Principal.table.storage.StringDictionary;
+import Principal.table.storage.StringVector;
+import utils.enums.IndexKind;
 import utils.enums.Operator;
+import utils.validation.NA;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.IntFunction;
+import java.util.regex.Pattern;
+import java.util.stream.DoubleStream;
 
 public class SimpleFilter implements Filter {
     private final String columnName;
     private final Operator operator;
     private final Object compareValue;
+    // Ordinal de columnName en el último esquema visto, para no buscarlo en cada fila.
+    // Cada caché es un objeto inmutable que se reemplaza entero: desde varios hilos a la vez,
+    // cada uno ve un par completo (o ninguno) y en el peor caso lo vuelve a calcular.
+    private Binding binding;
+    // Código de compareValue en el último vector categórico visto
+    private Coded coded;
+    // IN / NOT_IN: los números de la colección como double y el resto de los valores
+    private final Set<Double> numberMembers;
+    private final Set<Object> otherMembers;
+    // BETWEEN: extremos del rango
+    private final Object low;
+    private final Object high;
+    // MATCHES: expresión ya compilada
+    private final Pattern pattern;
 
+    /**
+     * @param compareValue Valor con el que se compara. Según el operador:
+     *                     IN / NOT_IN una Collection de valores, BETWEEN una List [desde, hasta],
+     *                     STARTS_WITH / CONTAINS / MATCHES un String (MATCHES, una expresión
+     *                     regular), IS_NA / NOT_NA no lo usan (puede ser null).
+     * @throws IllegalArgumentException si compareValue no es lo que espera el operador
+     */
     public SimpleFilter(String columnName, Operator operator, Object compareValue){
         if (columnName == null) {
         throw new NullPointerException("columnName no puede ser null");
@@ -20,11 +62,282 @@ public class SimpleFilter implements Filter {
         this.columnName = columnName;
         this.operator = operator;
         this.compareValue = compareValue;
+
+        Set<Double> numbers = null;
+        Set<Object> others = null;
+        Object from = null;
+        Object to = null;
+        Pattern regex = null;
+        switch (operator) {
+            case IN: case NOT_IN:
+                if (!(compareValue instanceof Collection)) {
+                    throw new IllegalArgumentException(operator + " necesita una colección de valores");
+                }
+                numbers = new HashSet<>();
+                others = new HashSet<>();
+                for (Object member : (Collection<?>) compareValue) {
+                    if (member instanceof Number) {
+                        Double key = numberKey(((Number) member).doubleValue());
+                        if (key != null) numbers.add(key);
+                    } else {
+                        others.add(member);
+                    }
+                }
+                break;
+            case BETWEEN:
+                if (!(compareValue instanceof List) || ((List<?>) compareValue).size() != 2) {
+                    throw new IllegalArgumentException("BETWEEN necesita una lista [desde, hasta]");
+                }
+                from = ((List<?>) compareValue).get(0);
+                to = ((List<?>) compareValue).get(1);
+                break;
+            case STARTS_WITH: case CONTAINS: case MATCHES:
+                if (!(compareValue instanceof String)) {
+                    throw new IllegalArgumentException(operator + " necesita un String");
+                }
+                if (operator == Operator.MATCHES) {
+                    regex = Pattern.compile((String) compareValue);
+                }
+                break;
+            default:
+                break;
+        }
+        this.numberMembers = numbers;
+        this.otherMembers = others;
+        this.low = from;
+        this.high = to;
+        this.pattern = regex;
     }
 
     @Override
     public boolean apply(Row row){
-        Object value = row.getValue(columnName);
+        Schema schema = row.getSchema();
+        if (schema == null) {
+            // Fila independiente: sin esquema compartido ni almacenamiento columnar
+            return compare(row.getValue(columnName));
+        }
+        Binding bound = binding;
+        if (bound == null || bound.schema != schema) {
+            int ordinal = schema.ordinalOf(columnName);
+            if (ordinal < 0) {
+                throw new IllegalArgumentException("Columna no encontrada: " + columnName);
+            }
+            bound = new Binding(schema, ordinal);
+            binding = bound;
+        }
+
+        ColumnVector vector = row.getColumnVector(bound.ordinal);
+        if (vector.isNA(row.getPosition())) {
+            // Celda faltante según el mapa de NA: no hace falta armar el valor
+            return compareNA();
+        }
+        if ((operator == Operator.EQ || operator == Operator.EN) && compareValue instanceof String
+                && vector instanceof CategoricalVector) {
+            return applyCoded((CategoricalVector) vector, row.getPosition());
+        }
+        return compare(row.getValue(bound.ordinal));
+    }
+
+    @Override
+    public Set<String> referencedColumns() {
+        return Set.of(columnName);
+    }
+
+    /**
+     * "(OPERADOR columna valor)", con los textos precedidos por su largo para que la forma
+     * no sea ambigua. Los números se escriben como double, igual que se comparan; IN / NOT_IN
+     * ordenan los valores. null si algún valor no es número, texto, booleano, NA o null.
+     */
+    @Override
+    public String canonicalForm() {
+        String value;
+        switch (operator) {
+            case IS_NA: case NOT_NA:
+                value = "";
+                break;
+            case IN: case NOT_IN:
+                Set<String> members = new TreeSet<>();
+                for (Object member : (Collection<?>) compareValue) {
+                    String form = canonicalValue(member);
+                    if (form == null) return null;
+                    members.add(form);
+                }
+                value = members.toString();
+                break;
+            case BETWEEN:
+                String from = canonicalValue(low);
+                String to = canonicalValue(high);
+                if (from == null || to == null) return null;
+                value = "[" + from + ", " + to + "]";
+                break;
+            default:
+                value = canonicalValue(compareValue);
+                if (value == null) return null;
+                break;
+        }
+        return "(" + operator + " " + quote(columnName) + " " + value + ")";
+    }
+
+    private static String canonicalValue(Object value) {
+        if (value == null) return "null";
+        if (value == NA.INSTANCE) return "NA";
+        if (value instanceof Number) return "n" + ((Number) value).doubleValue();
+        if (value instanceof String) return "s" + quote((String) value);
+        if (value instanceof Boolean) return "b" + value;
+        return null;
+    }
+
+    private static String quote(String text) {
+        return text.length() + ":" + text;
+    }
+
+    /**
+     * Resuelve la columna una vez y elige la comparación según el tipo del vector y del valor:
+     * int, double o float contra un número, String contra un String, y códigos del diccionario
+     * en columnas categóricas. Los demás casos comparan objetos como apply.
+     * Sobre int, double y categóricas, evaluate arma el mapa de bits de a 64 filas (ColumnScan).
+     * Si la columna tiene un índice que sirve para el operador, evaluate lo usa en lugar de
+     * recorrerla (IndexLookup): HASH para EQ / EN, SORTED para cualquiera de los seis
+     * operadores de comparación.
+     * IN / NOT_IN buscan en arreglos ordenados (int, double) o en el conjunto de valores,
+     * BETWEEN compara contra los dos extremos en la misma pasada, y en las categóricas
+     * IN, BETWEEN y los operadores de texto se resuelven por código del diccionario.
+     */
+    @Override
+    public CompiledFilter compile(DataTable table, IntFunction<Row> rowAt) {
+        if (!table.getColumnTypes().containsKey(columnName)) {
+            throw new IllegalArgumentException("Columna no encontrada: " + columnName);
+        }
+        ColumnVector vector = table.getColumnVector(columnName);
+        CompiledFilter scan = compileScan(vector);
+        if (!(compareValue instanceof Number) && !(compareValue instanceof String) || !isComparison()) {
+            return scan;
+        }
+        ColumnIndex index = operator == Operator.EQ || operator == Operator.EN
+                ? vector.getIndex(IndexKind.HASH) : null;
+        if (index == null) {
+            index = vector.getIndex(IndexKind.SORTED);
+        }
+        return index == null ? scan : new IndexLookup(scan, vector, index, operator, compareValue);
+    }
+
+    private boolean isComparison() {
+        switch (operator) {
+            case EQ: case EN: case GT: case LT: case GE: case LE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private CompiledFilter compileScan(ColumnVector vector) {
+        switch (operator) {
+            case IS_NA: case NOT_NA:
+                return compileIsNA(vector);
+            case IN: case NOT_IN:
+                return compileIn(vector);
+            case BETWEEN:
+                return compileBetween(vector);
+            case STARTS_WITH: case CONTAINS: case MATCHES:
+                return compileText(vector);
+            default:
+                break;
+        }
+        if (compareValue instanceof Number) {
+            double value = ((Number) compareValue).doubleValue();
+            if (vector instanceof IntVector) {
+                return compileInt((IntVector) vector, value);
+            }
+            if (vector instanceof DoubleVector) {
+                return compileDouble((DoubleVector) vector, value);
+            }
+            if (vector instanceof FloatVector) {
+                return compileFloat((FloatVector) vector, value);
+            }
+        } else if (compareValue instanceof String) {
+            if (vector instanceof CategoricalVector) {
+                return compileCoded((CategoricalVector) vector, (String) compareValue);
+            }
+            if (vector instanceof StringVector) {
+                return compileString((StringVector) vector, (String) compareValue);
+            }
+        }
+        return compileObjects(vector);
+    }
+
+    // Caso general: compara el objeto de cada celda como apply
+    private CompiledFilter compileObjects(ColumnVector vector) {
+        return position -> vector.isNA(position) ? compareNA() : compare(vector.get(position));
+    }
+
+    // Con NA, los rangos fallan y los demás operadores dan true o false
+    private boolean naSafe() {
+        switch (operator) {
+            case GT: case LT: case GE: case LE: case BETWEEN:
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    // Mismo resultado que compare(NA.INSTANCE): NA solo es igual a NA, no es comparable
+    // y no tiene texto
+    private boolean compareNA() {
+        switch (operator) {
+            case EQ: return compareValue == NA.INSTANCE;
+            case EN: return compareValue != NA.INSTANCE;
+            case IN: return otherMembers.contains(NA.INSTANCE);
+            case NOT_IN: return !otherMembers.contains(NA.INSTANCE);
+            case GT: case LT: case GE: case LE: case BETWEEN:
+                throw new IllegalArgumentException("Valores no comparables: " + NA.INSTANCE + " y " + compareValue);
+            case STARTS_WITH: case CONTAINS: case MATCHES: return false;
+            case IS_NA: return true;
+            case NOT_NA: return false;
+            default:
+                throw new IllegalArgumentException("Operador no soportado: " + operator);
+        }
+    }
+
+    private boolean compare(Object value) {
+        if (value == NA.INSTANCE) {
+            return compareNA();
+        }
+        switch (operator) {
+            case IN: return isMember(value);
+            case NOT_IN: return !isMember(value);
+            case BETWEEN: return compare(value, Operator.GE, low) && compare(value, Operator.LE, high);
+            case STARTS_WITH: case CONTAINS: case MATCHES: return matchesText(String.valueOf(value));
+            case IS_NA: return false;
+            case NOT_NA: return true;
+            default: return compare(value, operator, compareValue);
+        }
+    }
+
+    // Igual (como EQ) a alguno de los valores de la colección
+    private boolean isMember(Object value) {
+        if (value instanceof Number) {
+            Double key = numberKey(((Number) value).doubleValue());
+            return key != null && numberMembers.contains(key);
+        }
+        return otherMembers.contains(value);
+    }
+
+    // Clave de un número para IN: NaN no es igual a nada y 0.0 es igual a -0.0
+    private static Double numberKey(double value) {
+        if (Double.isNaN(value)) return null;
+        return value == 0 ? 0.0 : value;
+    }
+
+    private boolean matchesText(String text) {
+        switch (operator) {
+            case STARTS_WITH: return text.startsWith((String) compareValue);
+            case CONTAINS: return text.contains((String) compareValue);
+            case MATCHES: return pattern.matcher(text).matches();
+            default: throw new IllegalArgumentException("Operador no soportado: " + operator);
+        }
+    }
+
+    private static boolean compare(Object value, Operator operator, Object compareValue) {
 
         if (value instanceof Number && compareValue instanceof Number) {
             double v1 = ((Number)value).doubleValue();
@@ -73,6 +386,295 @@ public class SimpleFilter implements Filter {
                 throw new IllegalArgumentException("Operador no soportado: " + operator);
         }
     }
+
+    /**
+     * En evaluate, cada palabra del mapa de bits sale de un ciclo sobre el arreglo int
+     * con el operador ya elegido; las comparaciones no tienen saltos.
+     */
+    private CompiledFilter compileInt(IntVector v, double value) {
+        return new ColumnScan(v, intRows(v, value), this::compareNA, naSafe()) {
+            @Override
+            long scanWord(int[] ps, int from, int n) {
+                long bits = 0;
+                switch (operator) {
+                    case EQ: for (int b = 0; b < n; b++) bits |= (v.getInt(at(ps, from + b)) == value ? 1L : 0L) << b; break;
+                    case EN: for (int b = 0; b < n; b++) bits |= (v.getInt(at(ps, from + b)) != value ? 1L : 0L) << b; break;
+                    case GT: for (int b = 0; b < n; b++) bits |= (v.getInt(at(ps, from + b)) > value ? 1L : 0L) << b; break;
+                    case LT: for (int b = 0; b < n; b++) bits |= (v.getInt(at(ps, from + b)) < value ? 1L : 0L) << b; break;
+                    case GE: for (int b = 0; b < n; b++) bits |= (v.getInt(at(ps, from + b)) >= value ? 1L : 0L) << b; break;
+                    case LE: for (int b = 0; b < n; b++) bits |= (v.getInt(at(ps, from + b)) <= value ? 1L : 0L) << b; break;
+                    default: throw new IllegalArgumentException("Operador no soportado: " + operator);
+                }
+                return bits;
+            }
+        };
+    }
+
+    private CompiledFilter compileDouble(DoubleVector v, double value) {
+        return new ColumnScan(v, doubleRows(v, value), this::compareNA, naSafe()) {
+            @Override
+            long scanWord(int[] ps, int from, int n) {
+                long bits = 0;
+                switch (operator) {
+                    case EQ: for (int b = 0; b < n; b++) bits |= (v.getDouble(at(ps, from + b)) == value ? 1L : 0L) << b; break;
+                    case EN: for (int b = 0; b < n; b++) bits |= (v.getDouble(at(ps, from + b)) != value ? 1L : 0L) << b; break;
+                    case GT: for (int b = 0; b < n; b++) bits |= (v.getDouble(at(ps, from + b)) > value ? 1L : 0L) << b; break;
+                    case LT: for (int b = 0; b < n; b++) bits |= (v.getDouble(at(ps, from + b)) < value ? 1L : 0L) << b; break;
+                    case GE: for (int b = 0; b < n; b++) bits |= (v.getDouble(at(ps, from + b)) >= value ? 1L : 0L) << b; break;
+                    case LE: for (int b = 0; b < n; b++) bits |= (v.getDouble(at(ps, from + b)) <= value ? 1L : 0L) << b; break;
+                    default: throw new IllegalArgumentException("Operador no soportado: " + operator);
+                }
+                return bits;
+            }
+        };
+    }
+
+    // Los int se comparan como double, igual que en compare()
+    private CompiledFilter intRows(IntVector v, double value) {
+        switch (operator) {
+            case EQ: return p -> v.isNA(p) ? compareNA() : v.getInt(p) == value;
+            case EN: return p -> v.isNA(p) ? compareNA() : v.getInt(p) != value;
+            case GT: return p -> v.isNA(p) ? compareNA() : v.getInt(p) > value;
+            case LT: return p -> v.isNA(p) ? compareNA() : v.getInt(p) < value;
+            case GE: return p -> v.isNA(p) ? compareNA() : v.getInt(p) >= value;
+            case LE: return p -> v.isNA(p) ? compareNA() : v.getInt(p) <= value;
+            default: throw new IllegalArgumentException("Operador no soportado: " + operator);
+        }
+    }
+
+    private CompiledFilter doubleRows(DoubleVector v, double value) {
+        switch (operator) {
+            case EQ: return p -> v.isNA(p) ? compareNA() : v.getDouble(p) == value;
+            case EN: return p -> v.isNA(p) ? compareNA() : v.getDouble(p) != value;
+            case GT: return p -> v.isNA(p) ? compareNA() : v.getDouble(p) > value;
+            case LT: return p -> v.isNA(p) ? compareNA() : v.getDouble(p) < value;
+            case GE: return p -> v.isNA(p) ? compareNA() : v.getDouble(p) >= value;
+            case LE: return p -> v.isNA(p) ? compareNA() : v.getDouble(p) <= value;
+            default: throw new IllegalArgumentException("Operador no soportado: " + operator);
+        }
+    }
+
+    private CompiledFilter compileFloat(FloatVector v, double value) {
+        switch (operator) {
+            case EQ: return p -> v.isNA(p) ? compareNA() : v.getFloat(p) == value;
+            case EN: return p -> v.isNA(p) ? compareNA() : v.getFloat(p) != value;
+            case GT: return p -> v.isNA(p) ? compareNA() : v.getFloat(p) > value;
+            case LT: return p -> v.isNA(p) ? compareNA() : v.getFloat(p) < value;
+            case GE: return p -> v.isNA(p) ? compareNA() : v.getFloat(p) >= value;
+            case LE: return p -> v.isNA(p) ? compareNA() : v.getFloat(p) <= value;
+            default: throw new IllegalArgumentException("Operador no soportado: " + operator);
+        }
+    }
+
+    private CompiledFilter compileString(StringVector v, String value) {
+        switch (operator) {
+            case EQ: return p -> v.isNA(p) ? compareNA() : value.equals(v.getString(p));
+            case EN: return p -> v.isNA(p) ? compareNA() : !value.equals(v.getString(p));
+            case GT: return p -> v.isNA(p) ? compareNA() : v.getString(p).compareTo(value) > 0;
+            case LT: return p -> v.isNA(p) ? compareNA() : v.getString(p).compareTo(value) < 0;
+            case GE: return p -> v.isNA(p) ? compareNA() : v.getString(p).compareTo(value) >= 0;
+            case LE: return p -> v.isNA(p) ? compareNA() : v.getString(p).compareTo(value) <= 0;
+            default: throw new IllegalArgumentException("Operador no soportado: " + operator);
+        }
+    }
+
+    /**
+     * Columna categórica: EQ/EN comparan el código del valor; los demás operadores se
+     * evalúan una vez por cada cadena del diccionario y por fila solo se consulta el código.
+     */
+    private CompiledFilter compileCoded(CategoricalVector v, String value) {
+        StringDictionary dictionary = v.getDictionary();
+        if (operator == Operator.EQ || operator == Operator.EN) {
+            int code = dictionary.codeOf(value);
+            boolean equal = operator == Operator.EQ;
+            return new ColumnScan(v, p -> v.isNA(p) ? compareNA() : (v.getCode(p) == code) == equal, this::compareNA, naSafe()) {
+                @Override
+                long scanWord(int[] ps, int from, int n) {
+                    long bits = 0;
+                    for (int b = 0; b < n; b++) bits |= (v.getCode(at(ps, from + b)) == code ? 1L : 0L) << b;
+                    return equal ? bits : ~bits;
+                }
+            };
+        }
+        return compileCodes(v);
+    }
+
+    // Evalúa el operador una vez por cada cadena del diccionario; por fila solo se consulta el código
+    private CompiledFilter compileCodes(CategoricalVector v) {
+        StringDictionary dictionary = v.getDictionary();
+        boolean[] matches = new boolean[dictionary.size()];
+        for (int code = 0; code < matches.length; code++) {
+            matches[code] = compare(dictionary.valueOf(code));
+        }
+        return new ColumnScan(v, p -> v.isNA(p) ? compareNA() : matches[v.getCode(p)], this::compareNA, naSafe()) {
+            @Override
+            long scanWord(int[] ps, int from, int n) {
+                long bits = 0;
+                for (int b = 0; b < n; b++) bits |= (matches[v.getCode(at(ps, from + b))] ? 1L : 0L) << b;
+                return bits;
+            }
+        };
+    }
+
+    // IS_NA / NOT_NA: la palabra es constante y fixNA marca las celdas NA
+    private CompiledFilter compileIsNA(ColumnVector v) {
+        boolean na = operator == Operator.IS_NA;
+        return new ColumnScan(v, p -> v.isNA(p) == na, this::compareNA, true) {
+            @Override
+            long scanWord(int[] ps, int from, int n) {
+                return na ? 0L : -1L;
+            }
+        };
+    }
+
+    /**
+     * IN / NOT_IN: en int y double, búsqueda binaria sobre los números de la colección en un
+     * arreglo ordenado, sin boxing por fila; en String, el conjunto de valores.
+     */
+    private CompiledFilter compileIn(ColumnVector vector) {
+        boolean in = operator == Operator.IN;
+        if (vector instanceof CategoricalVector) {
+            return compileCodes((CategoricalVector) vector);
+        }
+        if (vector instanceof IntVector) {
+            IntVector v = (IntVector) vector;
+            int[] keys = numberMembers.stream()
+                    .filter(d -> d == (int) d.doubleValue())
+                    .mapToInt(Double::intValue).sorted().toArray();
+            return new ColumnScan(v, p -> v.isNA(p) ? compareNA() : (Arrays.binarySearch(keys, v.getInt(p)) >= 0) == in,
+                    this::compareNA, true) {
+                @Override
+                long scanWord(int[] ps, int from, int n) {
+                    long bits = 0;
+                    for (int b = 0; b < n; b++) bits |= (Arrays.binarySearch(keys, v.getInt(at(ps, from + b))) >= 0 ? 1L : 0L) << b;
+                    return in ? bits : ~bits;
+                }
+            };
+        }
+        if (vector instanceof DoubleVector) {
+            DoubleVector v = (DoubleVector) vector;
+            // binarySearch distingue 0.0 de -0.0: si está el cero van los dos
+            double[] keys = numberMembers.stream()
+                    .flatMapToDouble(d -> d == 0 ? DoubleStream.of(-0.0, 0.0) : DoubleStream.of(d))
+                    .sorted().toArray();
+            return new ColumnScan(v, p -> v.isNA(p) ? compareNA() : (Arrays.binarySearch(keys, v.getDouble(p)) >= 0) == in,
+                    this::compareNA, true) {
+                @Override
+                long scanWord(int[] ps, int from, int n) {
+                    long bits = 0;
+                    for (int b = 0; b < n; b++) bits |= (Arrays.binarySearch(keys, v.getDouble(at(ps, from + b))) >= 0 ? 1L : 0L) << b;
+                    return in ? bits : ~bits;
+                }
+            };
+        }
+        if (vector instanceof StringVector) {
+            StringVector v = (StringVector) vector;
+            return p -> v.isNA(p) ? compareNA() : otherMembers.contains(v.getString(p)) == in;
+        }
+        return compileObjects(vector);
+    }
+
+    // BETWEEN: los dos extremos en la misma comparación, con la semántica de GE y LE
+    private CompiledFilter compileBetween(ColumnVector vector) {
+        if (low instanceof Number && high instanceof Number) {
+            double lo = ((Number) low).doubleValue();
+            double hi = ((Number) high).doubleValue();
+            if (vector instanceof IntVector) {
+                IntVector v = (IntVector) vector;
+                return new ColumnScan(v, p -> v.isNA(p) ? compareNA() : v.getInt(p) >= lo && v.getInt(p) <= hi,
+                        this::compareNA, false) {
+                    @Override
+                    long scanWord(int[] ps, int from, int n) {
+                        long bits = 0;
+                        for (int b = 0; b < n; b++) {
+                            int x = v.getInt(at(ps, from + b));
+                            bits |= (x >= lo & x <= hi ? 1L : 0L) << b;
+                        }
+                        return bits;
+                    }
+                };
+            }
+            if (vector instanceof DoubleVector) {
+                DoubleVector v = (DoubleVector) vector;
+                return new ColumnScan(v, p -> v.isNA(p) ? compareNA() : v.getDouble(p) >= lo && v.getDouble(p) <= hi,
+                        this::compareNA, false) {
+                    @Override
+                    long scanWord(int[] ps, int from, int n) {
+                        long bits = 0;
+                        for (int b = 0; b < n; b++) {
+                            double x = v.getDouble(at(ps, from + b));
+                            bits |= (x >= lo & x <= hi ? 1L : 0L) << b;
+                        }
+                        return bits;
+                    }
+                };
+            }
+            if (vector instanceof FloatVector) {
+                FloatVector v = (FloatVector) vector;
+                return p -> v.isNA(p) ? compareNA() : v.getFloat(p) >= lo && v.getFloat(p) <= hi;
+            }
+        } else if (low instanceof String && high instanceof String) {
+            if (vector instanceof CategoricalVector) {
+                return compileCodes((CategoricalVector) vector);
+            }
+            if (vector instanceof StringVector) {
+                StringVector v = (StringVector) vector;
+                String lo = (String) low;
+                String hi = (String) high;
+                return p -> v.isNA(p) ? compareNA() : v.getString(p).compareTo(lo) >= 0 && v.getString(p).compareTo(hi) <= 0;
+            }
+        }
+        return compileObjects(vector);
+    }
+
+    // STARTS_WITH / CONTAINS / MATCHES: en categóricas una vez por cadena del diccionario
+    private CompiledFilter compileText(ColumnVector vector) {
+        if (vector instanceof CategoricalVector) {
+            return compileCodes((CategoricalVector) vector);
+        }
+        if (vector instanceof StringVector) {
+            StringVector v = (StringVector) vector;
+            return p -> v.isNA(p) ? compareNA() : matchesText(v.getString(p));
+        }
+        return compileObjects(vector);
+    }
+
+    // EQ/EN sobre una columna codificada por diccionario: compara códigos enteros en vez de cadenas
+    private boolean applyCoded(CategoricalVector vector, int position) {
+        StringDictionary dictionary = vector.getDictionary();
+        Coded current = coded;
+        // Un código encontrado no cambia; NO_CODE vale mientras el diccionario no crezca
+        // (setAt o Row.setValue pueden agregar compareValue después)
+        if (current == null || current.vector != vector
+                || (current.code == StringDictionary.NO_CODE && current.dictionarySize != dictionary.size())) {
+            current = new Coded(vector, dictionary.size(), dictionary.codeOf((String) compareValue));
+            coded = current;
+        }
+        boolean equal = vector.getCode(position) == current.code;
+        return operator == Operator.EQ ? equal : !equal;
+    }
+
+    private static final class Binding {
+        final Schema schema;
+        final int ordinal;
+
+        Binding(Schema schema, int ordinal) {
+            this.schema = schema;
+            this.ordinal = ordinal;
+        }
+    }
+
+    private static final class Coded {
+        final CategoricalVector vector;
+        final int dictionarySize;
+        final int code;
+
+        Coded(CategoricalVector vector, int dictionarySize, int code) {
+            this.vector = vector;
+            this.dictionarySize = dictionarySize;
+            this.code = code;
+        }
+    }
 }
 
 
@@ -3,52 +3,89 @@ package Principal.sort;
 
 import Principal.sort.interfaces.Sorter;
 import Principal.table.Table;
-import Principal.table.Row;
 import Principal.table.DataTable;
+import Principal.table.storage.CategoricalVector;
+import Principal.table.storage.ColumnVector;
+import Principal.table.storage.DoubleVector;
+import Principal.table.storage.IntVector;
 
 import java.util.*;
 
 public class SimpleSorter implements Sorter {
     @Override
     public Table sort(Table table, List<String> columns, boolean ascending) {
-        // 1) Tomar las filas actuales en una lista junto a sus índices
-        List<Map.Entry<Integer, Row>> filaEntrys = new ArrayList<>(((DataTable) table).getRows().entrySet());
-
-        // 2) Ordenar la lista usando los valores de las columnas
-        filaEntrys.sort((e1, e2) -> {
-            Row row1 = e1.getValue();
-            Row row2 = e2.getValue();
-            for (String col : columns) {
-                Object v1 = row1.getValue(col);
-                Object v2 = row2.getValue(col);
-
-                // Si ambos son numéricos, comparar como double
-                if (v1 instanceof Number && v2 instanceof Number) {
-                    double d1 = ((Number) v1).doubleValue();
-                    double d2 = ((Number) v2).doubleValue();
-                    int cmp = Double.compare(d1, d2);
-                    if (cmp != 0) return ascending ? cmp : -cmp;
-                } else if (v1 instanceof Comparable && v2 instanceof Comparable) {
-                    @SuppressWarnings("unchecked")
-                    int cmp = ((Comparable<Object>) v1).compareTo(v2);
-                    if (cmp != 0) return ascending ? cmp : -cmp;
-                } else if (v1 != null && v2 == null) {
-                    return ascending ? 1 : -1;
-                } else if (v1 == null && v2 != null) {
-                    return ascending ? -1 : 1;
-                }
+        DataTable dataTable = (DataTable) table;
+
+        // 1) Resolver los vectores columnares de las columnas de orden una sola vez
+        ColumnVector[] keys = new ColumnVector[columns.size()];
+        // Para columnas categóricas, el rango lexicográfico de cada código del diccionario
+        int[][] ranks = new int[keys.length][];
+        for (int k = 0; k < keys.length; k++) {
+            keys[k] = dataTable.getColumnVector(columns.get(k));
+            if (keys[k] instanceof CategoricalVector) {
+                ranks[k] = ((CategoricalVector) keys[k]).getDictionary().ranks();
+            }
+        }
+
+        // 2) Ordenar las posiciones de las filas usando los valores de las columnas
+        // (la tabla puede ser una vista: se compara en las posiciones físicas de los vectores)
+        Integer[] posiciones = new Integer[dataTable.getRowCount()];
+        int[] fisicas = new int[posiciones.length];
+        for (int i = 0; i < posiciones.length; i++) {
+            posiciones[i] = i;
+            fisicas[i] = dataTable.storagePosition(i);
+        }
+        Arrays.sort(posiciones, (p1, p2) -> {
+            for (int k = 0; k < keys.length; k++) {
+                int cmp = compare(keys[k], ranks[k], fisicas[p1], fisicas[p2]);
+                if (cmp != 0) return ascending ? cmp : -cmp;
                 // Si son iguales, sigue con la siguiente columna
             }
             return 0;
         });
 
-        // 3) Crear el nuevo map de filas, conservando columnas/types
-        LinkedHashMap<Integer, Row> filasOrdenadas = new LinkedHashMap<>();
-        for (Map.Entry<Integer, Row> entry : filaEntrys) {
-            filasOrdenadas.put(entry.getKey(), entry.getValue());
+        // 3) Crear la tabla ordenada con las filas en el nuevo orden, conservando columnas/types e IDs
+        int[] orden = new int[posiciones.length];
+        for (int i = 0; i < orden.length; i++) {
+            orden[i] = posiciones[i];
         }
+        return dataTable.take(orden);
+    }
 
-        // 4) Crear la tabla ordenada usando el mismo constructor que DataTable
-        return new DataTable(filasOrdenadas, ((DataTable) table).getColumns(), ((DataTable) table).getColumnTypes());
+    private static int compare(ColumnVector key, int[] ranks, int p1, int p2) {
+        // Columnas primitivas sin NA: comparar directo sobre el arreglo, sin boxing
+        if (!key.isNA(p1) && !key.isNA(p2)) {
+            if (ranks != null) {
+                CategoricalVector cat = (CategoricalVector) key;
+                return Integer.compare(ranks[cat.getCode(p1)], ranks[cat.getCode(p2)]);
+            }
+            if (key instanceof DoubleVector) {
+                DoubleVector d = (DoubleVector) key;
+                return Double.compare(d.getDouble(p1), d.getDouble(p2));
+            }
+            if (key instanceof IntVector) {
+                IntVector iv = (IntVector) key;
+                return Integer.compare(iv.getInt(p1), iv.getInt(p2));
+            }
+        }
+
+        Object v1 = key.get(p1);
+        Object v2 = key.get(p2);
+
+        // Si ambos son numéricos, comparar como double
+        if (v1 instanceof Number && v2 instanceof Number) {
+            double d1 = ((Number) v1).doubleValue();
+            double d2 = ((Number) v2).doubleValue();
+            return Double.compare(d1, d2);
+        } else if (v1 instanceof Comparable && v2 instanceof Comparable) {
+            @SuppressWarnings("unchecked")
+            int cmp = ((Comparable<Object>) v1).compareTo(v2);
+            return cmp;
+        } else if (v1 != null && v2 == null) {
+            return 1;
+        } else if (v1 == null && v2 != null) {
+            return -1;
+        }
+        return 0;
     }
 }
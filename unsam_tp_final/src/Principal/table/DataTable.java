@@ -1,20 +1,51 @@
 package Principal.table;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import Principal.filter.Bitmaps;
+import Principal.filter.CompiledFilter;
 import Principal.filter.Filter;
+import Principal.table.storage.ColumnBuilder;
+import Principal.table.storage.ColumnVector;
+import Principal.table.storage.ObjectVector;
 import utils.enums.DataType;
+import utils.concurrent.SharedPools;
+import utils.enums.IndexKind;
 import utils.validation.NA;
 
 /**
  * Implementación de la interfaz Table que maneja datos tabulares con tipado fuerte.
  * Esta clase proporciona funcionalidades para manipular, filtrar y transformar datos tabulares.
+ * Los datos se guardan por columnas: cada columna tiene un ColumnVector con un arreglo
+ * primitivo según su DataType, y las filas (Row) son vistas sobre esos arreglos.
+ * filter, sample, head, tail, slice y take devuelven vistas que comparten los vectores
+ * de la tabla original y solo guardan un vector de selección con las posiciones elegidas.
  */
 public class DataTable implements Table {
-    private final Map<Integer, Row> rows;
-    private final List<Column> columns;
-    private final Map<String, DataType> columnTypes;
+    // Filas a partir de las cuales filter(filter, parallelism) reparte el trabajo entre hilos
+    private static final int PARALLEL_MIN_ROWS = 1 << 17;
+    // Filas mínimas de cada parte del filtrado en paralelo (múltiplo de 64)
+    private static final int PARTITION_MIN_ROWS = 1 << 14;
+
+    // Columnas, tipos y ordinales; compartido con todas las filas de la tabla
+    private final Schema schema;
+    // Un vector por columna, en el mismo orden que el esquema. Las vistas comparten este arreglo.
+    private final ColumnVector[] vectors;
+    // ID de la fila en cada posición física; null => los IDs coinciden con las posiciones (0..n-1)
+    private final int[] rowIds;
+    // Posición física de cada fila de la tabla; null => todas las posiciones físicas, en orden
+    private final int[] selection;
+    private final int rowCount;
+    // true si los IDs, en el orden de la tabla, son estrictamente crecientes
+    private final boolean idsSorted;
+    private Map<Integer, Integer> positionsById;
+    private Map<Integer, Row> rowsView;
+    // Resultados de filter guardados; null => sin caché (hay que activarla)
+    private volatile FilterCache filterCache;
 
     /**
      * Constructor de DataTable.
@@ -36,81 +67,227 @@ public class DataTable implements Table {
                     "columnTypes debe contener tipo para: " + col.getLabel());
             }
         }
-        this.rows = new LinkedHashMap<>(rows);
-        this.columns = List.copyOf(columns);
-        this.columnTypes = Map.copyOf(columnTypes);
+        this.schema = new Schema(columns);
+
+        // Pasar las filas al formato columnar
+        ColumnBuilder[] builders = newBuilders(schema, rows.size());
+        int[] ids = new int[rows.size()];
+        int pos = 0;
+        for (Map.Entry<Integer, Row> entry : rows.entrySet()) {
+            Row row = entry.getValue();
+            for (int c = 0; c < builders.length; c++) {
+                builders[c].append(row.getValue(schema.getLabel(c)));
+            }
+            ids[pos++] = entry.getKey();
+        }
+        this.vectors = buildAll(builders);
+        this.rowIds = isIdentity(ids) ? null : ids;
+        this.selection = null;
+        this.rowCount = ids.length;
+        this.idsSorted = isSorted(this.rowIds);
+    }
+
+    /**
+     * Constructor a partir de columnas ya cargadas en formato columnar.
+     * Las filas reciben IDs consecutivos desde 0.
+     * @param columns Lista de columnas
+     * @param vectors Un ColumnVector por columna, todos del mismo tamaño
+     * @throws NullPointerException si algún parámetro es null
+     * @throws IllegalArgumentException si los tamaños no coinciden
+     */
+    public DataTable(List<Column> columns, List<ColumnVector> vectors) {
+        this(columns, vectors, null);
+    }
+
+    /**
+     * Constructor a partir de vectores ya construidos, conservando los IDs de las filas.
+     * @param rowIds ID de la fila en cada posición, o null para usar 0..n-1
+     * @throws IllegalArgumentException si los vectores no tienen una fila por ID
+     */
+    public DataTable(List<Column> columns, List<ColumnVector> vectors, int[] rowIds) {
+        this(new Schema(columns),
+             Objects.requireNonNull(vectors, "vectors no puede ser null").toArray(new ColumnVector[0]),
+             rowIds == null || isIdentity(rowIds) ? null : rowIds.clone(),
+             null,
+             rowIds != null ? rowIds.length : (vectors.isEmpty() ? 0 : vectors.get(0).size()));
+    }
+
+    private DataTable(Schema schema, ColumnVector[] vectors, int[] rowIds, int[] selection, int rowCount) {
+        if (schema.size() != vectors.length) {
+            throw new IllegalArgumentException(
+                "Se esperaban " + schema.size() + " vectores y se recibieron " + vectors.length);
+        }
+        int storageSize = selection == null ? rowCount : (vectors.length == 0 ? 0 : vectors[0].size());
+        for (ColumnVector vector : vectors) {
+            if (vector.size() != storageSize) {
+                throw new IllegalArgumentException("Todas las columnas deben tener " + storageSize + " filas");
+            }
+        }
+        this.schema = schema;
+        this.vectors = vectors;
+        this.rowIds = rowIds;
+        this.selection = selection;
+        this.rowCount = rowCount;
+        this.idsSorted = selection == null ? isSorted(rowIds) : isSortedSelection();
     }
 
     @Override
     public List<String> getColumnLabels() {
-        return columns.stream()
-                      .map(Column::getLabel)
-                      .collect(Collectors.toUnmodifiableList());
+        return schema.getLabels();
     }
 
     @Override
     public int getRowCount() {
-        return rows.size();
+        return rowCount;
     }
 
     @Override
     public int getColumnCount() {
-        return columns.size();
+        return schema.size();
     }
 
     @Override
     public Object getValue(String columnName, int rowIndex) {
-        validateColumnName(columnName);
-        Row row = rows.get(rowIndex);
-        if (row == null) {
-            throw new IllegalArgumentException("Fila no encontrada: " + rowIndex);
-        }
-        return row.getValue(columnName);
+        int ordinal = validateColumnName(columnName);
+        return vectors[ordinal].get(physical(requirePosition(rowIndex)));
     }
 
     @Override
     public Row getRow(int rowIndex) {
-        Row row = rows.get(rowIndex);
-        if (row == null) {
-            throw new IllegalArgumentException("Fila no encontrada: " + rowIndex);
-        }
-        return row;
+        return new Row(this, physical(requirePosition(rowIndex)));
     }
 
     @Override
     public List<Column> getColumns() {
-        return List.copyOf(columns);
+        return schema.getColumns();
     }
 
     @Override
     public DataTable filter(Filter filter) {
         Objects.requireNonNull(filter, "filter no puede ser null");
-        Map<Integer, Row> newRows = new LinkedHashMap<>();
-        for (var entry : this.rows.entrySet()) {
-            Integer rowId = entry.getKey();
-            Row fila = entry.getValue();
-            if (filter.apply(fila)) {
-                newRows.put(rowId, fila);
+        return select(passing(filter, 1));
+    }
+
+    /**
+     * Igual que filter(filter), pero en tablas grandes reparte las filas en partes que se
+     * evalúan en un ForkJoinPool compartido entre llamadas (SharedPools) y se juntan en el
+     * orden original: el resultado (filas, IDs y orden de getRows()) es el mismo que en
+     * secuencial. Las tablas con menos de PARALLEL_MIN_ROWS filas se filtran en el hilo que llama.
+     * El filtro se evalúa desde varios hilos a la vez: SimpleFilter y CompFilter solo guardan
+     * cachés inmutables o sincronizadas; un Filter propio no debería modificar estado compartido.
+     * @param parallelism Hilos a usar (1 = secuencial)
+     * @throws IllegalArgumentException si parallelism no es positivo
+     */
+    public DataTable filter(Filter filter, int parallelism) {
+        Objects.requireNonNull(filter, "filter no puede ser null");
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism debe ser positivo");
+        }
+        return select(passing(filter, parallelism));
+    }
+
+    // Posiciones de la tabla que pasan el filtro; con la caché activa, primero las busca ahí
+    private int[] passing(Filter filter, int parallelism) {
+        FilterCache cache = filterCache;
+        String key = cache == null ? null : filter.canonicalForm();
+        if (key == null) {
+            return evaluate(filter, parallelism);
+        }
+        long version = getVersion();
+        int[] cached = cache.get(key, vectors, version);
+        if (cached != null) {
+            return cached;
+        }
+        int[] positions = evaluate(filter, parallelism);
+        cache.put(key, vectors, version, positions, rowCount);
+        return positions;
+    }
+
+    private int[] evaluate(Filter filter, int parallelism) {
+        // Columnas, tipos y operadores se resuelven una vez; después cada hoja recorre su
+        // vector y arma un mapa de bits, que se combina palabra por palabra
+        CompiledFilter compiled = filter.compile(this, position -> new Row(this, position));
+        if (parallelism == 1 || rowCount < PARALLEL_MIN_ROWS) {
+            return Bitmaps.toIndexes(compiled.evaluate(selection, rowCount, null));
+        }
+        // Partes alineadas a 64 filas, unas cuantas por hilo para repartir mejor la carga
+        int partRows = Math.max(PARTITION_MIN_ROWS, (rowCount + 4 * parallelism - 1) / (4 * parallelism));
+        int partition = (partRows + 63) & ~63;
+        ForkJoinPool pool = SharedPools.get(parallelism);
+        List<Future<int[]>> parts = new ArrayList<>();
+        try {
+            for (int from = 0; from < rowCount; from += partition) {
+                int start = from;
+                int end = Math.min(rowCount, from + partition);
+                parts.add(pool.submit(() -> filterRange(compiled, start, end)));
+            }
+            int[][] results = new int[parts.size()][];
+            int total = 0;
+            for (int i = 0; i < results.length; i++) {
+                results[i] = getResult(parts.get(i));
+                total += results[i].length;
+            }
+            int[] selected = new int[total];
+            int count = 0;
+            for (int[] part : results) {
+                System.arraycopy(part, 0, selected, count, part.length);
+                count += part.length;
             }
+            return selected;
+        } catch (RuntimeException | Error e) {
+            // El pool es compartido: no dejar trabajando las partes que faltan
+            for (Future<int[]> part : parts) {
+                part.cancel(true);
+            }
+            throw e;
         }
-        return new DataTable(newRows, this.columns, this.columnTypes);
     }
 
-    private void validateColumnName(String columnName) {
-        boolean existe = columns.stream()
-                                .anyMatch(col -> col.getLabel().equals(columnName));
-        if (!existe) {
-            throw new IllegalArgumentException(
-                "La columna '" + columnName + "' no existe.");
+    // Posiciones de la tabla en [from, to) que pasan el filtro
+    private int[] filterRange(CompiledFilter compiled, int from, int to) {
+        int[] positions = new int[to - from];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = physical(from + i);
         }
+        int[] passed = Bitmaps.toIndexes(compiled.evaluate(positions, positions.length, null));
+        for (int i = 0; i < passed.length; i++) {
+            passed[i] += from;
+        }
+        return passed;
     }
+
+    private static <T> T getResult(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Filtrado interrumpido", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private int validateColumnName(String columnName) {
+        return schema.requireOrdinal(columnName);
+    }
+
+    /**
+     * Devuelve las filas como un mapa de solo lectura indexado por ID.
+     * Las filas se crean a medida que se recorren y escriben directo sobre las columnas.
+     */
     @Override
     public Map<Integer, Row> getRows() {
-        return rows;
+        if (rowsView == null) {
+            rowsView = new RowMap();
+        }
+        return rowsView;
     }
     @Override
     public Map<String, DataType> getColumnTypes() {
-        return columnTypes;
+        return schema.getTypes();
     }
 
     /**
@@ -126,15 +303,17 @@ public class DataTable implements Table {
         if (n > this.getRowCount()) {
             throw new IllegalArgumentException("El tamaño de la muestra no puede ser mayor que el número total de filas");
         }
-        List<Integer> indices = new ArrayList<>(this.getRows().keySet());
-        Collections.shuffle(indices);
-        int sampleSize = Math.min(n, indices.size());
-        LinkedHashMap<Integer, Row> sampledRows = new LinkedHashMap<>();
+        // Fisher-Yates parcial sobre las posiciones: solo hace falta mezclar las primeras n
+        int[] positions = identityPositions(rowCount);
+        Random random = new Random();
+        int sampleSize = Math.min(n, positions.length);
         for (int i = 0; i < sampleSize; i++) {
-            Integer idx = indices.get(i);
-            sampledRows.put(idx, this.getRows().get(idx));
+            int j = i + random.nextInt(positions.length - i);
+            int tmp = positions[i];
+            positions[i] = positions[j];
+            positions[j] = tmp;
         }
-        return new DataTable(sampledRows, this.getColumns(), this.getColumnTypes());
+        return select(Arrays.copyOf(positions, sampleSize));
     }
 
     /**
@@ -152,16 +331,13 @@ public class DataTable implements Table {
      * === OPERACIONES BÁSICAS DE ACCESO ===
      */
     public void setAt(int rowIndex, String columnName, Object value) {
-        validateColumnName(columnName);
-        Row row = rows.get(rowIndex);
-        if (row == null) {
-            throw new IllegalArgumentException("Fila no encontrada: " + rowIndex);
-        }
+        int ordinal = validateColumnName(columnName);
+        int position = physical(requirePosition(rowIndex));
 
-        DataType expectedType = columnTypes.get(columnName);
+        DataType expectedType = schema.getType(ordinal);
         Object safeValue;
 
-        if (value.equals(NA.INSTANCE)) {
+        if (value == NA.INSTANCE) {
             safeValue = NA.INSTANCE;
         } else {
             // Usamos el parser de DataType para convertir el valor
@@ -173,8 +349,36 @@ public class DataTable implements Table {
             }
         }
 
-        row.setValue(columnName, safeValue);
+        setCell(position, ordinal, safeValue);
     }
+    /**
+     * Indica si la celda de la fila y columna indicadas es NA, sin armar el valor como objeto.
+     * @throws IllegalArgumentException si la fila o la columna no existen
+     */
+    public boolean isNA(int rowIndex, String columnName) {
+        int ordinal = validateColumnName(columnName);
+        return vectors[ordinal].isNA(physical(requirePosition(rowIndex)));
+    }
+
+    /**
+     * Cantidad de celdas NA de la columna. Sobre una tabla que no es vista
+     * (o una columna sin NA) es un conteo de bits del mapa de NA, sin recorrer las celdas.
+     * @throws IllegalArgumentException si la columna no existe
+     */
+    public int countNA(String columnName) {
+        ColumnVector vector = vectors[validateColumnName(columnName)];
+        if (selection == null || !vector.hasNA()) {
+            return vector.countNA();
+        }
+        int count = 0;
+        for (int pos = 0; pos < rowCount; pos++) {
+            if (vector.isNA(selection[pos])) {
+                count++;
+            }
+        }
+        return count;
+    }
+
     /**
      * Añade una nueva columna.
      * @param columnName Nombre de la nueva columna
@@ -188,35 +392,22 @@ public class DataTable implements Table {
         if (columnName == null || type == null || values == null) {
             throw new NullPointerException("Ningún parámetro puede ser null");
         }
-        if (values.size() != rows.size()) {
+        if (values.size() != rowCount) {
             throw new IllegalArgumentException(
                     "El número de valores (" + values.size() +
-                            ") no coincide con el número de filas (" + rows.size() + ")");
-        }
-        if (columnTypes.containsKey(columnName)) {
-            throw new IllegalArgumentException("La columna " + columnName + " ya existe");
+                            ") no coincide con el número de filas (" + rowCount + ")");
         }
+        checkNewColumnName(columnName);
 
-        // Crear nueva estructura de columnas
-        List<Column> newColumns = new ArrayList<>(this.columns);
-        newColumns.add(new Column(columnName, type));
-
-        // Crear nuevos tipos de columna
-        Map<String, DataType> newColumnTypes = new LinkedHashMap<>(this.columnTypes);
-        newColumnTypes.put(columnName, type);
-
-        Map<Integer, Row> newRows = new LinkedHashMap<>();
+        // Construir el vector de la nueva columna
+        ColumnBuilder builder = new ColumnBuilder(type, rowCount);
         int valueIndex = 0;
 
-        for (Map.Entry<Integer, Row> entry : rows.entrySet()) {
-            int rowIndex = entry.getKey();
-            Row oldRow = entry.getValue();
-
-            List<Object> newValues = new ArrayList<>(oldRow.getValues());
-            Object rawValue = values.get(valueIndex++);
+        for (Object rawValue : values) {
+            valueIndex++;
             Object value;
 
-            if (rawValue.equals(NA.INSTANCE)) {
+            if (rawValue == NA.INSTANCE) {
                 value = NA.INSTANCE;
             } else {
                 try {
@@ -228,14 +419,15 @@ public class DataTable implements Table {
                 }
             }
 
-            newValues.add(value);
-            List<String> newLabels = new ArrayList<>(oldRow.getColumnLabels());
-            newLabels.add(columnName);
-
-            newRows.put(rowIndex, new Row(rowIndex, newValues, newLabels));
+            builder.append(value);
         }
 
-        return new DataTable(newRows, newColumns, newColumnTypes);
+        // Compartir las columnas existentes y agregar la nueva al final
+        DataTable base = compactIfSparse();
+        ColumnVector[] newVectors = Arrays.copyOf(base.shareVectorsExcept(-1), vectors.length + 1);
+        newVectors[vectors.length] = base.toStorageLayout(builder.build());
+
+        return base.withColumns(appendColumn(columnName, type), newVectors);
     }
     /**
      * Añade una nueva columna como copia transformada de una columna existente
@@ -251,17 +443,29 @@ public class DataTable implements Table {
             Function<Object, Object> valueTransformer
     ) {
         // Validar que la columna origen existe
-        validateColumnName(sourceColumnName);
-          
+        int ordinal = validateColumnName(sourceColumnName);
+
         // Obtener tipo de dato de la columna origen
-        DataType sourceType = this.columnTypes.get(sourceColumnName);
+        DataType sourceType = schema.getType(ordinal);
+
+        // Copia simple de una columna tipada: la nueva columna comparte el mismo vector (copy-on-write)
+        if (valueTransformer == null && !(vectors[ordinal] instanceof ObjectVector)) {
+            if (newColumnName == null) {
+                throw new NullPointerException("Ningún parámetro puede ser null");
+            }
+            checkNewColumnName(newColumnName);
+            ColumnVector[] newVectors = Arrays.copyOf(shareVectorsExcept(-1), vectors.length + 1);
+            newVectors[vectors.length] = vectors[ordinal];
+            return withColumns(appendColumn(newColumnName, sourceType), newVectors);
+        }
 
         // Preparar lista de valores transformados
-        List<Object> newValues = new ArrayList<>();
+        List<Object> newValues = new ArrayList<>(rowCount);
 
         // Copiar/transformar valores de cada fila
-        for (Row row : this.rows.values()) {
-            Object originalValue = row.getValue(sourceColumnName);
+        ColumnVector source = vectors[ordinal];
+        for (int pos = 0; pos < rowCount; pos++) {
+            Object originalValue = source.get(physical(pos));
             Object newValue = (valueTransformer != null) ?
                     valueTransformer.apply(originalValue) :
                     originalValue;
@@ -279,19 +483,17 @@ public class DataTable implements Table {
      * @throws IllegalArgumentException si la fila no existe
      */
     public DataTable dropRow(int rowIndex) {
-        if (!rows.containsKey(rowIndex)) {
-            throw new IllegalArgumentException("Fila no encontrada: " + rowIndex);
-        }
+        int removed = requirePosition(rowIndex);
 
-        // Crear nuevo mapa de filas sin la especificada
-        Map<Integer, Row> newRows = new LinkedHashMap<>();
-        for (Map.Entry<Integer, Row> entry : rows.entrySet()) {
-            if (entry.getKey() != rowIndex) {
-                newRows.put(entry.getKey(), new Row(entry.getValue()));
+        // Todas las posiciones salvo la especificada
+        int[] positions = new int[rowCount - 1];
+        for (int pos = 0, i = 0; pos < rowCount; pos++) {
+            if (pos != removed) {
+                positions[i++] = pos;
             }
         }
 
-        return new DataTable(newRows, this.columns, this.columnTypes);
+        return materialize(positions);
     }
     /**
      * Elimina una columna de la tabla, manteniendo todas las filas pero sin los valores de la columna especificada.
@@ -302,43 +504,24 @@ public class DataTable implements Table {
      */
     public DataTable dropColumn(String columnName) {
         Objects.requireNonNull(columnName, "La columna tiene que tener un nombre");
-        validateColumnName(columnName);
+        int dropped = validateColumnName(columnName);
 
         // 1. Crear nueva lista de columnas (excluyendo la que se elimina)
-        List<Column> newColumns = this.columns.stream()
+        List<Column> newColumns = schema.getColumns().stream()
                 .filter(col -> !col.getLabel().equals(columnName))
                 .map(Column::new) // Usar constructor de copia
                 .collect(Collectors.toList());
 
-        // 2. Crear nuevos tipos de columna
-        Map<String, DataType> newColumnTypes = new LinkedHashMap<>(this.columnTypes);
-        newColumnTypes.remove(columnName);
-
-        // 3. Reconstruir filas excluyendo la columna eliminada
-        Map<Integer, Row> newRows = new LinkedHashMap<>();
-
-        for (Map.Entry<Integer, Row> entry : this.rows.entrySet()) {
-            int rowIndex = entry.getKey();
-            Row oldRow = entry.getValue();
-
-            List<Object> newValues = new ArrayList<>();
-            List<String> newLabels = new ArrayList<>();
-
-            // Filtrar valores y etiquetas
-            for (int i = 0; i < oldRow.getColumnLabels().size(); i++) {
-                String currentLabel = oldRow.getColumnLabels().get(i);
-                if (!currentLabel.equals(columnName)) {
-                    newLabels.add(currentLabel);
-                    Object value = oldRow.getValues().get(i);
-                    // Preservar NA.INSTANCE si existe
-                    newValues.add(value instanceof NA ? NA.INSTANCE : value);
-                }
+        // 2. Compartir los vectores de las columnas que quedan, sin copiarlos
+        ColumnVector[] shared = shareVectorsExcept(dropped);
+        ColumnVector[] newVectors = new ColumnVector[vectors.length - 1];
+        for (int c = 0, i = 0; c < vectors.length; c++) {
+            if (c != dropped) {
+                newVectors[i++] = shared[c];
             }
-
-            newRows.put(rowIndex, new Row(rowIndex, newValues, newLabels));
         }
 
-        return new DataTable(newRows, newColumns, newColumnTypes);
+        return withColumns(newColumns, newVectors);
     }
     /**
      * Obtiene las primeras n filas de la tabla.
@@ -350,14 +533,7 @@ public class DataTable implements Table {
         if (n < 0) {
             throw new IllegalArgumentException("El número de filas no puede ser negativo");
         }
-        LinkedHashMap<Integer, Row> firstRows = new LinkedHashMap<>();
-        int count = 0;
-        for (Map.Entry<Integer, Row> entry : rows.entrySet()) {
-            if (count >= n) break;
-            firstRows.put(entry.getKey(), entry.getValue());
-            count++;
-        }
-        DataTable t = new DataTable(firstRows, columns, columnTypes);
+        DataTable t = select(rangePositions(0, Math.min(n, rowCount)));
         TableView v = new TableView(t);
         v.printAllRows();
     }
@@ -372,13 +548,7 @@ public class DataTable implements Table {
         if (n < 0) {
             throw new IllegalArgumentException("El número de filas no puede ser negativo");
         }
-        LinkedHashMap<Integer, Row> lastRows = new LinkedHashMap<>();
-        List<Integer> keys = new ArrayList<>(rows.keySet());
-        int start = Math.max(0, keys.size() - n);
-        for (int i = start; i < keys.size(); i++) {
-            lastRows.put(keys.get(i), rows.get(keys.get(i)));
-        }
-        DataTable t = new DataTable(lastRows, columns, columnTypes);
+        DataTable t = select(rangePositions(Math.max(0, rowCount - n), rowCount));
         TableView v = new TableView(t);
         v.printAllRows();
     }
@@ -387,22 +557,11 @@ public class DataTable implements Table {
      * Si los índices son inválidos, lanza excepción.
      */
     public void slice(int indice1, int indice2) {
-        if (indice1 < 0 || indice2 > rows.size() || indice1 > indice2) {
+        if (indice1 < 0 || indice2 > rowCount || indice1 > indice2) {
             throw new IllegalArgumentException("Índices fuera de rango o mal ordenados");
         }
 
-        LinkedHashMap<Integer, Row> slicedRows = new LinkedHashMap<>();
-        int count = 0;
-
-        for (Map.Entry<Integer, Row> entry : rows.entrySet()) {
-            if (count >= indice1 && count < indice2) {
-                slicedRows.put(entry.getKey(), entry.getValue());
-            }
-            count++;
-            if (count >= indice2) break;
-        }
-
-        DataTable t = new DataTable(slicedRows, columns, columnTypes);
+        DataTable t = select(rangePositions(indice1, indice2));
         TableView vista = new TableView(t);
         vista.printAllRows();  // o printProlijo()
     }
@@ -416,6 +575,11 @@ public class DataTable implements Table {
     @Override
     public DataTable deepCopy(Table original) {
         Objects.requireNonNull(original, "original no puede ser null");
+        if (original instanceof DataTable) {
+            // Clonamos esquema y vectores columnares; los IDs de fila se conservan
+            DataTable other = (DataTable) original;
+            return new DataTable(other.schema, other.copyVectors(), other.compactIds(), null, other.rowCount);
+        }
 
         // Clonamos esquema (Column y tipos) 
         List<Column> cols = original.getColumns().stream()
@@ -456,24 +620,23 @@ public class DataTable implements Table {
 
         // Construcción del esquema
         List<Column> cols = new ArrayList<>();
-        Map<String, DataType> colTypes = new LinkedHashMap<>();
         for (int i = 0; i < labels.length; i++) {
             cols.add(new Column(labels[i], types[i]));
-            colTypes.put(labels[i], types[i]);
         }
+        Schema newSchema = new Schema(cols);
 
-        // Ensamblaje de filas
-        Map<Integer, Row> rows = new LinkedHashMap<>();
+        // Ensamblaje de columnas
+        ColumnBuilder[] builders = newBuilders(newSchema, data.length);
         for (int i = 0; i < data.length; i++) {
             if (data[i].length != labels.length)
                 throw new IllegalArgumentException(
                     "La fila " + i + " no coincide en tamaño con labels");
-            List<Object> vals = Arrays.asList(data[i]);
-            Row row = new Row(i, vals, Arrays.asList(labels));
-            rows.put(i, row);
+            for (int c = 0; c < builders.length; c++) {
+                builders[c].append(data[i][c]);
+            }
         }
 
-        return new DataTable(rows, cols, colTypes);
+        return new DataTable(newSchema, buildAll(builders), null, null, data.length);
     }
 
     /**
@@ -498,24 +661,25 @@ public class DataTable implements Table {
 
         // Esquema
         List<Column> cols = new ArrayList<>();
-        Map<String, DataType> colTypes = new LinkedHashMap<>();
         for (int i = 0; i < labels.size(); i++) {
             cols.add(new Column(labels.get(i), types.get(i)));
-            colTypes.put(labels.get(i), types.get(i));
         }
+        Schema newSchema = new Schema(cols);
 
         // Filas
-        Map<Integer, Row> rows = new LinkedHashMap<>();
+        ColumnBuilder[] builders = newBuilders(newSchema, 16);
         int idx = 0;
         for (List<Object> vals : iterable) {
             if (vals.size() != labels.size())
                 throw new IllegalArgumentException(
                     "La fila en posición " + idx + " tiene longitud incorrecta");
-            Row row = new Row(idx, vals, labels);
-            rows.put(idx++, row);
+            for (int c = 0; c < builders.length; c++) {
+                builders[c].append(vals.get(c));
+            }
+            idx++;
         }
 
-        return new DataTable(rows, cols, colTypes);
+        return new DataTable(newSchema, buildAll(builders), null, null, idx);
     }
 
     /**
@@ -562,61 +726,48 @@ public class DataTable implements Table {
         List<Column> newCols = colsA.stream()
                                     .map(Column::new)
                                     .collect(Collectors.toList());
-        Map<String, DataType> newTypes = new LinkedHashMap<>(typesA);
 
-        // 4) Concatenar filas con reindexado
-        Map<Integer, Row> newRows = new LinkedHashMap<>();
-        int idx = 0;
-        for (Row row : tablaA.getRows().values()) {
-            newRows.put(idx, new Row(idx, row.getValues(), row.getColumnLabels()));
-            idx++;
-        }
-        for (Row row : tablaB.getRows().values()) {
-            newRows.put(idx, new Row(idx, row.getValues(), row.getColumnLabels()));
-            idx++;
+        // 4) Concatenar columna por columna; las filas se reindexan desde 0
+        int total = tablaA.rowCount + tablaB.rowCount;
+        Schema newSchema = new Schema(newCols);
+        ColumnBuilder[] builders = newBuilders(newSchema, total);
+        for (int c = 0; c < builders.length; c++) {
+            for (int pos = 0; pos < tablaA.rowCount; pos++) {
+                builders[c].append(tablaA.vectors[c].get(tablaA.physical(pos)));
+            }
+            for (int pos = 0; pos < tablaB.rowCount; pos++) {
+                builders[c].append(tablaB.vectors[c].get(tablaB.physical(pos)));
+            }
         }
 
-        return new DataTable(newRows, newCols, newTypes);
+        return new DataTable(newSchema, buildAll(builders), null, null, total);
     }
 
     @Override
     public DataTable impute(String columnName, Object newValue) {
         // 1) Validaciones
-        validateColumnName(columnName);
+        int colIdx = validateColumnName(columnName);
         Objects.requireNonNull(newValue, "El valor de imputación no puede ser null");
 
-        DataType expectedType = columnTypes.get(columnName);
+        DataType expectedType = schema.getType(colIdx);
         Object safeValue = castToType(newValue, expectedType);
 
-        // 2) Índice de la columna a imputar
-        int colIdx = -1;
-        for (int i = 0; i < columns.size(); i++) {
-            if (columns.get(i).getLabel().equals(columnName)) {
-                colIdx = i;
-                break;
-            }
+        // 2) Compartir las demás columnas y copiar solo la que se imputa
+        DataTable base = compactIfSparse();
+        ColumnVector[] newVectors = base.shareVectorsExcept(colIdx);
+        ColumnVector target = base == this ? newVectors[colIdx].copy() : newVectors[colIdx];
+        if (!target.accepts(safeValue)) {
+            target = target.toObjectVector();
         }
+        newVectors[colIdx] = target;
 
-        // 3) Reconstruir filas, reemplazando solo las celdas NA.INSTANCE
-        Map<Integer, Row> newRows = new LinkedHashMap<>();
-        for (var entry : this.rows.entrySet()) {
-            int idx = entry.getKey();
-            Row oldRow = entry.getValue();
-            Object cell = oldRow.getValue(columnName);
-
-            if (cell == NA.INSTANCE) {
-                // Clonamos valores y reemplazamos NA
-                List<Object> vals = oldRow.getValues();  // copia defensiva
-                vals.set(colIdx, safeValue);
-                newRows.put(idx, new Row(idx, vals, oldRow.getColumnLabels()));
-            } else {
-                // Copia profunda de la fila original
-                newRows.put(idx, new Row(oldRow));
-            }
-        }
+        // 3) Reemplazar solo las celdas NA (bits encendidos) de la columna imputada.
+        //    Si la tabla es una vista, las posiciones fuera de la selección no son visibles
+        //    desde la nueva tabla, así que no hace falta distinguirlas.
+        target.fillNA(safeValue);
 
         // 4) Devolver nueva tabla (preserva índices originales)
-        return new DataTable(newRows, this.columns, this.columnTypes);
+        return base.withColumns(schema.getColumns(), newVectors);
     }
 
     /** 
@@ -642,4 +793,413 @@ public class DataTable implements Table {
                 throw new IllegalArgumentException("Tipo desconocido: " + dt);
         }
     }
+
+    /**
+     * Devuelve una vista con las filas en las posiciones indicadas (0..getRowCount()-1),
+     * en ese orden. Conserva los IDs de fila originales y comparte los datos con esta tabla.
+     * @param positions Posiciones de las filas a tomar
+     * @throws IndexOutOfBoundsException si alguna posición está fuera de rango
+     */
+    public DataTable take(int[] positions) {
+        Objects.requireNonNull(positions, "positions no puede ser null");
+        for (int pos : positions) {
+            Objects.checkIndex(pos, rowCount);
+        }
+        return select(positions);
+    }
+
+    /**
+     * Crea un índice sobre la columna para que filter no tenga que recorrerla:
+     * HASH responde EQ / EN y SORTED los rangos GT / LT / GE / LE (y también EQ / EN).
+     * El índice cubre todo el vector de la columna, así que lo usan también la tabla
+     * original y las demás vistas que lo comparten. Cualquier escritura en la columna
+     * (setAt, Row.setValue, ...) lo descarta; hay que volver a crearlo.
+     * @throws IllegalArgumentException si la columna no existe o no es numérica ni de texto
+     */
+    public void createIndex(String columnName, IndexKind kind) {
+        Objects.requireNonNull(kind, "kind no puede ser null");
+        vectors[validateColumnName(columnName)].createIndex(kind);
+    }
+
+    /**
+     * Activa (o reemplaza por una vacía) una caché de resultados de filter para esta tabla.
+     * Un filtro que se repite con la misma forma canónica (Filter.canonicalForm) devuelve
+     * las filas guardadas sin volver a evaluarse, mientras la tabla no cambie: cualquier
+     * escritura en sus vectores (setAt, Row.setValue, ...), también desde una vista que los
+     * comparte, cambia getVersion y descarta los resultados. Los filtros sin forma canónica
+     * (por ejemplo, una lambda) se evalúan siempre. Las vistas que devuelve filter no heredan la caché.
+     * @param maxBytes Memoria aproximada para los resultados guardados
+     * @return La caché, para consultar aciertos y fallos
+     * @throws IllegalArgumentException si maxBytes no es positivo
+     */
+    public FilterCache enableFilterCache(long maxBytes) {
+        FilterCache cache = new FilterCache(maxBytes);
+        filterCache = cache;
+        return cache;
+    }
+
+    public void disableFilterCache() {
+        filterCache = null;
+    }
+
+    /**
+     * Caché de resultados de filter, o null si no está activa.
+     */
+    public FilterCache getFilterCache() {
+        return filterCache;
+    }
+
+    /**
+     * Versión de los datos: la suma de ColumnVector.modCount de las columnas, así que cambia
+     * con cada escritura en los vectores, hecha desde esta tabla o desde otra que los comparta.
+     * impute y las demás operaciones que devuelven una tabla nueva no cambian la de esta.
+     */
+    public long getVersion() {
+        long version = 0;
+        for (ColumnVector vector : vectors) {
+            version += vector.modCount();
+        }
+        return version;
+    }
+
+    /**
+     * Indica si la columna tiene un índice vigente del tipo indicado.
+     * @throws IllegalArgumentException si la columna no existe
+     */
+    public boolean hasIndex(String columnName, IndexKind kind) {
+        Objects.requireNonNull(kind, "kind no puede ser null");
+        return vectors[validateColumnName(columnName)].getIndex(kind) != null;
+    }
+
+    /**
+     * Vector columnar de la columna indicada. Puede estar compartido con otras vistas,
+     * así que sus posiciones son físicas: usar storagePosition para traducir.
+     */
+    public ColumnVector getColumnVector(String columnName) {
+        return vectors[validateColumnName(columnName)];
+    }
+
+    /**
+     * Posición dentro de los vectores columnares de la fila en la posición indicada (0..getRowCount()-1).
+     */
+    public int storagePosition(int position) {
+        Objects.checkIndex(position, rowCount);
+        return physical(position);
+    }
+
+    /**
+     * IDs de las filas en el orden de la tabla.
+     */
+    public int[] getRowIds() {
+        int[] ids = new int[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            ids[i] = idAt(i);
+        }
+        return ids;
+    }
+
+    // === Acceso interno para Row (las posiciones son físicas) ===
+
+    Schema getSchema() {
+        return schema;
+    }
+
+    ColumnVector vectorAt(int ordinal) {
+        return vectors[ordinal];
+    }
+
+    int rowIdAt(int position) {
+        return rowIds == null ? position : rowIds[position];
+    }
+
+    /**
+     * Escribe una celda sin validar el tipo. Si el valor no entra en el arreglo tipado,
+     * la columna pasa a guardarse como objetos; como las vistas comparten el arreglo
+     * de vectores, el cambio lo ven también la tabla original y sus otras vistas.
+     */
+    void setCell(int position, int ordinal, Object value) {
+        if (!vectors[ordinal].accepts(value)) {
+            vectors[ordinal] = vectors[ordinal].toObjectVector();
+        } else if (vectors[ordinal].isShared()) {
+            // Copy-on-write: el vector también lo usa otra tabla independiente
+            vectors[ordinal] = vectors[ordinal].copy();
+        }
+        vectors[ordinal].set(position, value);
+    }
+
+    // === Utilidades internas ===
+
+    private void checkNewColumnName(String columnName) {
+        if (schema.ordinalOf(columnName) >= 0) {
+            throw new IllegalArgumentException("La columna " + columnName + " ya existe");
+        }
+    }
+
+    private List<Column> appendColumn(String columnName, DataType type) {
+        List<Column> newColumns = new ArrayList<>(schema.getColumns());
+        newColumns.add(new Column(columnName, type));
+        return newColumns;
+    }
+
+    /**
+     * Tabla con otro esquema sobre las mismas filas (IDs y selección) que esta.
+     */
+    private DataTable withColumns(List<Column> newColumns, ColumnVector[] newVectors) {
+        Schema newSchema = newColumns == schema.getColumns() ? schema : new Schema(newColumns);
+        return new DataTable(newSchema, newVectors, rowIds, selection, rowCount);
+    }
+
+    /**
+     * Copia del arreglo de vectores para una tabla independiente que va a compartirlos.
+     * Los vectores compartidos quedan marcados para copiarse antes de la próxima escritura.
+     * @param except Ordinal que no se marca porque el llamador lo reemplaza (-1 si ninguno)
+     */
+    private ColumnVector[] shareVectorsExcept(int except) {
+        for (int c = 0; c < vectors.length; c++) {
+            if (c != except) {
+                vectors[c].markShared();
+            }
+        }
+        return vectors.clone();
+    }
+
+    /**
+     * Si esta tabla es una vista chica sobre un almacenamiento mucho más grande, devuelve
+     * una copia compacta; así agregar o cambiar una columna no cuesta el tamaño del original.
+     */
+    private DataTable compactIfSparse() {
+        if (selection != null && (vectors.length == 0 || rowCount * 2 < vectors[0].size())) {
+            return materialize(identityPositions(rowCount));
+        }
+        return this;
+    }
+
+    // Pasa un vector en el orden de las filas de la tabla a las posiciones físicas de sus vectores
+    private ColumnVector toStorageLayout(ColumnVector vector) {
+        return selection == null ? vector : vector.scatter(selection, vectors[0].size());
+    }
+
+    private int physical(int position) {
+        return selection == null ? position : selection[position];
+    }
+
+    private int idAt(int position) {
+        return rowIdAt(physical(position));
+    }
+
+    /**
+     * Vista sin copia: comparte los vectores (y sus IDs) y guarda solo las posiciones físicas elegidas.
+     * Encadenar vistas compone las selecciones.
+     */
+    private DataTable select(int[] positions) {
+        int[] physicalPositions = new int[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            physicalPositions[i] = physical(positions[i]);
+        }
+        return new DataTable(schema, vectors, rowIds, physicalPositions, positions.length);
+    }
+
+    /**
+     * Copia independiente y compacta de las filas en las posiciones indicadas.
+     */
+    private DataTable materialize(int[] positions) {
+        int[] physicalPositions = new int[positions.length];
+        int[] ids = new int[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            physicalPositions[i] = physical(positions[i]);
+            ids[i] = rowIdAt(physicalPositions[i]);
+        }
+        ColumnVector[] copied = new ColumnVector[vectors.length];
+        for (int c = 0; c < vectors.length; c++) {
+            copied[c] = vectors[c].select(physicalPositions);
+        }
+        return new DataTable(schema, copied, isIdentity(ids) ? null : ids, null, positions.length);
+    }
+
+    // Copia independiente de un vector con solo las filas de esta tabla, en su orden
+    private ColumnVector compactCopy(ColumnVector vector) {
+        return selection == null ? vector.copy() : vector.select(selection);
+    }
+
+    private ColumnVector[] copyVectors() {
+        ColumnVector[] copy = new ColumnVector[vectors.length];
+        for (int c = 0; c < vectors.length; c++) {
+            copy[c] = compactCopy(vectors[c]);
+        }
+        return copy;
+    }
+
+    // IDs de las filas en el orden de la tabla, alineados con compactCopy; null si son 0..n-1
+    private int[] compactIds() {
+        if (selection == null) {
+            return rowIds;
+        }
+        int[] ids = new int[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            ids[i] = idAt(i);
+        }
+        return isIdentity(ids) ? null : ids;
+    }
+
+    private int requirePosition(int rowIndex) {
+        int position = positionOf(rowIndex);
+        if (position < 0) {
+            throw new IllegalArgumentException("Fila no encontrada: " + rowIndex);
+        }
+        return position;
+    }
+
+    // Posición (en el orden de la tabla) de la fila con el ID indicado, o -1
+    private int positionOf(int rowId) {
+        if (rowIds == null && selection == null) {
+            return rowId >= 0 && rowId < rowCount ? rowId : -1;
+        }
+        if (idsSorted) {
+            int lo = 0;
+            int hi = rowCount - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                int id = idAt(mid);
+                if (id < rowId) {
+                    lo = mid + 1;
+                } else if (id > rowId) {
+                    hi = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+        if (positionsById == null) {
+            Map<Integer, Integer> byId = new HashMap<>(rowCount * 2);
+            for (int pos = 0; pos < rowCount; pos++) {
+                byId.put(idAt(pos), pos);
+            }
+            positionsById = byId;
+        }
+        Integer pos = positionsById.get(rowId);
+        return pos == null ? -1 : pos;
+    }
+
+    private static ColumnBuilder[] newBuilders(Schema schema, int expectedSize) {
+        ColumnBuilder[] builders = new ColumnBuilder[schema.size()];
+        for (int c = 0; c < builders.length; c++) {
+            builders[c] = new ColumnBuilder(schema.getType(c), expectedSize);
+        }
+        return builders;
+    }
+
+    private static ColumnVector[] buildAll(ColumnBuilder[] builders) {
+        ColumnVector[] built = new ColumnVector[builders.length];
+        for (int c = 0; c < builders.length; c++) {
+            built[c] = builders[c].build();
+        }
+        return built;
+    }
+
+    private static int[] identityPositions(int n) {
+        return rangePositions(0, n);
+    }
+
+    private static int[] rangePositions(int from, int to) {
+        int[] positions = new int[to - from];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = from + i;
+        }
+        return positions;
+    }
+
+    private static boolean isIdentity(int[] ids) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] != i) return false;
+        }
+        return true;
+    }
+
+    private boolean isSortedSelection() {
+        for (int i = 1; i < rowCount; i++) {
+            if (idAt(i) <= idAt(i - 1)) return false;
+        }
+        return true;
+    }
+
+    private static boolean isSorted(int[] ids) {
+        if (ids == null) return true;
+        for (int i = 1; i < ids.length; i++) {
+            if (ids[i] <= ids[i - 1]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Vista de solo lectura de las filas indexadas por ID, en el orden de la tabla.
+     */
+    private final class RowMap extends AbstractMap<Integer, Row> {
+        @Override
+        public int size() {
+            return rowCount;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof Integer && positionOf((Integer) key) >= 0;
+        }
+
+        @Override
+        public Row get(Object key) {
+            if (!(key instanceof Integer)) return null;
+            int pos = positionOf((Integer) key);
+            return pos < 0 ? null : new Row(DataTable.this, physical(pos));
+        }
+
+        @Override
+        public Set<Integer> keySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Integer> iterator() {
+                    return new Iterator<>() {
+                        private int pos = 0;
+                        public boolean hasNext() { return pos < rowCount; }
+                        public Integer next() {
+                            if (pos >= rowCount) throw new NoSuchElementException();
+                            return idAt(pos++);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return rowCount;
+                }
+
+                @Override
+                public boolean contains(Object key) {
+                    return containsKey(key);
+                }
+            };
+        }
+
+        @Override
+        public Set<Map.Entry<Integer, Row>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Map.Entry<Integer, Row>> iterator() {
+                    return new Iterator<>() {
+                        private int pos = 0;
+                        public boolean hasNext() { return pos < rowCount; }
+                        public Map.Entry<Integer, Row> next() {
+                            if (pos >= rowCount) throw new NoSuchElementException();
+                            Row row = new Row(DataTable.this, physical(pos++));
+                            return new AbstractMap.SimpleImmutableEntry<>(row.getIndex(), row);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return rowCount;
+                }
+            };
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,174 @@
+package Principal.table;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import Principal.filter.Bitmaps;
+import Principal.table.storage.ColumnVector;
+
+/**
+ * Caché de resultados de filter de una DataTable (ver DataTable.enableFilterCache).
+ * La clave es la forma canónica del filtro (Filter.canonicalForm) y los resultados valen
+ * para una versión de la tabla (DataTable.getVersion): si la versión cambia, o si alguna
+ * columna pasó a otro vector, se descartan todos antes de responder.
+ * Cada resultado se guarda como mapa de bits o como arreglo de posiciones, lo que ocupe
+ * menos; si se pasa del presupuesto de bytes se sacan los usados hace más tiempo (LRU).
+ */
+public final class FilterCache {
+    // Bytes aproximados de una entrada sin contar la clave ni el resultado
+    private static final int ENTRY_OVERHEAD = 64;
+
+    private final long maxBytes;
+    // En orden de acceso: el primero es el usado hace más tiempo
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    // Versión y vectores de la tabla para los que valen las entradas
+    private long version;
+    private ColumnVector[] vectors;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    FilterCache(long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes debe ser positivo");
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Posiciones de la tabla guardadas para key, o null si no están o ya no valen.
+     * El arreglo devuelto no se debe modificar.
+     */
+    synchronized int[] get(String key, ColumnVector[] current, long currentVersion) {
+        validate(current, currentVersion);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.positions != null ? entry.positions : Bitmaps.toIndexes(entry.bitmap);
+    }
+
+    /**
+     * Guarda las posiciones que pasaron el filtro key, calculadas sobre la versión indicada.
+     * Si la tabla cambió mientras se filtraba, o el resultado no entra en el presupuesto, no se guarda.
+     */
+    synchronized void put(String key, ColumnVector[] current, long currentVersion, int[] positions, int rowCount) {
+        validate(current, currentVersion);
+        if (currentVersion != version) {
+            return;
+        }
+        Entry entry = new Entry(key, positions, rowCount);
+        if (entry.bytes > maxBytes) {
+            return;
+        }
+        Entry old = entries.put(key, entry);
+        if (old != null) {
+            bytes -= old.bytes;
+        }
+        bytes += entry.bytes;
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (bytes > maxBytes) {
+            bytes -= eldest.next().bytes;
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    // Descarta todo si la tabla cambió desde la última consulta
+    private void validate(ColumnVector[] current, long currentVersion) {
+        if (vectors != null && currentVersion == version && sameVectors(current)) {
+            return;
+        }
+        if (!entries.isEmpty()) {
+            invalidations++;
+            entries.clear();
+            bytes = 0;
+        }
+        version = currentVersion;
+        vectors = current.clone();
+    }
+
+    private boolean sameVectors(ColumnVector[] current) {
+        if (current.length != vectors.length) {
+            return false;
+        }
+        for (int c = 0; c < current.length; c++) {
+            if (current[c] != vectors[c]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Entradas sacadas por falta de lugar.
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Veces que se descartaron todas las entradas porque la tabla cambió.
+     */
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Bytes aproximados que ocupan las entradas guardadas.
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "FilterCache{entradas=" + entries.size() + ", bytes=" + bytes + "/" + maxBytes
+                + ", aciertos=" + hits + ", fallos=" + misses + "}";
+    }
+
+    // Resultado de un filtro: posiciones si son pocas, mapa de bits si son muchas
+    private static final class Entry {
+        final int[] positions;
+        final long[] bitmap;
+        final long bytes;
+
+        Entry(String key, int[] positions, int rowCount) {
+            long positionBytes = 4L * positions.length;
+            long bitmapBytes = 8L * Bitmaps.words(rowCount);
+            if (positionBytes <= bitmapBytes) {
+                this.positions = positions;
+                this.bitmap = null;
+            } else {
+                this.positions = null;
+                this.bitmap = Bitmaps.fromIndexes(positions, rowCount);
+            }
+            this.bytes = ENTRY_OVERHEAD + 2L * key.length() + Math.min(positionBytes, bitmapBytes);
+        }
+    }
+}
@@ -3,61 +3,162 @@ package Principal.table;
 import java.util.ArrayList;
 //import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Objects;
+
+import Principal.table.storage.ColumnVector;
 
 public class Row {
     private final int index;
     private final List<Object> values;
     private final List<String> columnLabels;
+    // Si la fila pertenece a una DataTable, lee y escribe directo sobre sus columnas
+    // y comparte el esquema de la tabla para resolver ordinales
+    private final DataTable table;
+    private final Schema schema;
+    private final int position;
 
     public Row(int index, List<Object> values, List<String> columnLabels) {
         this.index = index;
         this.values = values;
         this.columnLabels = columnLabels;
+        this.table = null;
+        this.schema = null;
+        this.position = -1;
+    }
+
+    // Fila respaldada por el almacenamiento columnar de la tabla, en la posición indicada
+    Row(DataTable table, int position) {
+        this.index = table.rowIdAt(position);
+        this.values = null;
+        this.columnLabels = null;
+        this.table = table;
+        this.schema = table.getSchema();
+        this.position = position;
     }
 
     public int getIndex() {
         return index;
     }
 
+    /**
+     * Posición de la fila dentro del almacenamiento columnar de su tabla, o -1 si la fila es independiente.
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * Esquema compartido con la tabla, o null si la fila es independiente.
+     * Quien recorre muchas filas puede resolver el ordinal una vez con
+     * schema.ordinalOf(...) y después usar getValue(int).
+     */
+    public Schema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Vector columnar que respalda la columna indicada, o null si la fila es independiente.
+     * Permite a filtros y ordenamientos leer el valor tipado sin pasar por Object.
+     */
+    public ColumnVector getColumnVector(String columnName) {
+        if (table == null) {
+            return null;
+        }
+        return table.vectorAt(ordinalOf(columnName));
+    }
+
+    public ColumnVector getColumnVector(int ordinal) {
+        return table == null ? null : table.vectorAt(ordinal);
+    }
+
     public Object getValue(String columnName) {
-        int columnIndex = columnLabels.indexOf(columnName);
-        if (columnIndex < 0 || columnIndex >= values.size()) {
-            throw new IllegalArgumentException("Columna no encontrada: " + columnName);
+        return getValue(ordinalOf(columnName));
+    }
+
+    /**
+     * Valor de la columna en la posición indicada del esquema.
+     */
+    public Object getValue(int ordinal) {
+        if (table != null) {
+            return table.vectorAt(ordinal).get(position);
         }
-        return values.get(columnIndex);
+        return values.get(ordinal);
     }
     // Un constructor de copia que cree un nuevo Row a partir de otro.
     public Row(Row other) {
         this.index = other.index;
-        this.values = new ArrayList<>(other.values); // Copia la lista de valores
-        this.columnLabels = new ArrayList<>(other.columnLabels); // También copialo si es mutable
+        this.values = other.getValues(); // Copia la lista de valores
+        this.columnLabels = other.getColumnLabels(); // También copialo si es mutable
+        this.table = null;
+        this.schema = null;
+        this.position = -1;
     }
 
     public String toString() {
+        List<String> labels = getColumnLabels();
+        List<Object> vals = getValues();
         StringBuilder sb = new StringBuilder("{ ");
-        for (int i = 0; i < columnLabels.size(); i++) {
-            sb.append(columnLabels.get(i)).append("=").append(values.get(i));
-            if (i < columnLabels.size() - 1) sb.append(", ");
+        for (int i = 0; i < labels.size(); i++) {
+            sb.append(labels.get(i)).append("=").append(vals.get(i));
+            if (i < labels.size() - 1) sb.append(", ");
         }
         sb.append(" }");
         return sb.toString();
     }
     // Método para establecer un nuevo valor en una columna específica
     public void setValue(String columnName, Object nuevoValor) {
-        int colIdx = columnLabels.indexOf(columnName);
-        if (colIdx == -1) {
+        setValue(ordinalOf(columnName), nuevoValor);
+    }
+
+    public void setValue(int ordinal, Object nuevoValor) {
+        if (table != null) {
+            table.setCell(position, ordinal, nuevoValor);
+            return;
+        }
+        values.set(ordinal, nuevoValor);
+    }
+
+    private int ordinalOf(String columnName) {
+        int ordinal = schema != null ? schema.ordinalOf(columnName) : columnLabels.indexOf(columnName);
+        if (ordinal < 0 || (schema == null && ordinal >= values.size())) {
             throw new IllegalArgumentException("Columna no encontrada: " + columnName);
         }
-        values.set(colIdx, nuevoValor);
+        return ordinal;
     }
 
     // Agregando métodos para obtener los valores y etiquetas de columna
     // de la fila, si es necesario.
     public List<Object> getValues() {
+        if (table != null) {
+            List<Object> vals = new ArrayList<>(schema.size());
+            for (int c = 0; c < schema.size(); c++) {
+                vals.add(table.vectorAt(c).get(position));
+            }
+            return vals;
+        }
         return new ArrayList<>(values);
     }
 
     public List<String> getColumnLabels() {
+        if (table != null) {
+            return new ArrayList<>(schema.getLabels());
+        }
         return new ArrayList<>(columnLabels);
     }
+
+    // Dos filas son iguales si tienen el mismo índice, las mismas columnas y los mismos valores
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof Row)) return false;
+        Row other = (Row) obj;
+        return index == other.index
+            && getColumnLabels().equals(other.getColumnLabels())
+            && getValues().equals(other.getValues());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(index, getColumnLabels(), getValues());
+    }
 }
@@ -0,0 +1,89 @@
+package Principal.table;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import utils.enums.DataType;
+
+/**
+ * Esquema inmutable de una tabla: columnas, etiquetas, tipos y la posición (ordinal)
+ * de cada columna. Lo comparten la tabla y todas sus filas, así que buscar una
+ * columna por nombre es una consulta a un HashMap en lugar de recorrer las etiquetas.
+ */
+public final class Schema {
+    private final List<Column> columns;
+    private final List<String> labels;
+    private final Map<String, DataType> types;
+    private final Map<String, Integer> ordinals;
+
+    public Schema(List<Column> columns) {
+        Objects.requireNonNull(columns, "La columna no puede ser null");
+        this.columns = List.copyOf(columns);
+        List<String> labelList = new ArrayList<>(columns.size());
+        Map<String, DataType> typeMap = new LinkedHashMap<>();
+        Map<String, Integer> ordinalMap = new HashMap<>(columns.size() * 2);
+        for (int i = 0; i < columns.size(); i++) {
+            Column col = columns.get(i);
+            labelList.add(col.getLabel());
+            typeMap.putIfAbsent(col.getLabel(), col.getType());
+            // Si hay etiquetas repetidas gana la primera, igual que List.indexOf
+            ordinalMap.putIfAbsent(col.getLabel(), i);
+        }
+        this.labels = List.copyOf(labelList);
+        this.types = Map.copyOf(typeMap);
+        this.ordinals = ordinalMap;
+    }
+
+    public int size() {
+        return columns.size();
+    }
+
+    public List<Column> getColumns() {
+        return columns;
+    }
+
+    public List<String> getLabels() {
+        return labels;
+    }
+
+    public Map<String, DataType> getTypes() {
+        return types;
+    }
+
+    public Column getColumn(int ordinal) {
+        return columns.get(ordinal);
+    }
+
+    public String getLabel(int ordinal) {
+        return labels.get(ordinal);
+    }
+
+    public DataType getType(int ordinal) {
+        return columns.get(ordinal).getType();
+    }
+
+    /**
+     * Posición de la columna, o -1 si no existe.
+     */
+    public int ordinalOf(String columnName) {
+        Integer ordinal = ordinals.get(columnName);
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    /**
+     * Posición de la columna.
+     * @throws IllegalArgumentException si la columna no existe
+     */
+    public int requireOrdinal(String columnName) {
+        int ordinal = ordinalOf(columnName);
+        if (ordinal < 0) {
+            throw new IllegalArgumentException(
+                "La columna '" + columnName + "' no existe.");
+        }
+        return ordinal;
+    }
+}
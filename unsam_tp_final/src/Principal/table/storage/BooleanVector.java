@@ -0,0 +1,100 @@
+package Principal.table.storage;
+
+import java.util.Arrays;
+
+import utils.enums.DataType;
+import utils.validation.NA;
+
+/**
+ * Columna BOOLEAN empaquetada en bits: cada long guarda 64 celdas.
+ */
+public final class BooleanVector extends ColumnVector {
+    private long[] bits;
+
+    public BooleanVector(int capacity) {
+        this.bits = new long[words(Math.max(capacity, 0))];
+    }
+
+    BooleanVector(long[] bits, int size) {
+        this.bits = bits;
+        this.size = size;
+    }
+
+    // Arreglo interno (puede tener más capacidad que size), para VectorCodec
+    long[] rawBits() {
+        return bits;
+    }
+
+    @Override
+    public DataType getType() {
+        return DataType.BOOLEAN;
+    }
+
+    public boolean getBoolean(int pos) {
+        return (bits[pos >>> 6] & (1L << pos)) != 0;
+    }
+
+    public void setBoolean(int pos, boolean value) {
+        if (value) {
+            bits[pos >>> 6] |= 1L << pos;
+        } else {
+            bits[pos >>> 6] &= ~(1L << pos);
+        }
+        setNA(pos, false);
+    }
+
+    public void appendBoolean(boolean value) {
+        ensureCapacity(size + 1);
+        size++;
+        setBoolean(size - 1, value);
+    }
+
+    @Override
+    public boolean accepts(Object value) {
+        return value == NA.INSTANCE || value instanceof Boolean;
+    }
+
+    @Override
+    public ColumnVector select(int[] positions) {
+        BooleanVector result = new BooleanVector(new long[words(positions.length)], positions.length);
+        for (int i = 0; i < positions.length; i++) {
+            if (getBoolean(positions[i])) {
+                result.bits[i >>> 6] |= 1L << i;
+            }
+        }
+        copyNATo(result, positions);
+        return result;
+    }
+
+    @Override
+    public ColumnVector copy() {
+        BooleanVector result = new BooleanVector(Arrays.copyOf(bits, words(size)), size);
+        copyNATo(result);
+        return result;
+    }
+
+    @Override
+    protected ColumnVector emptyLike(int capacity) {
+        return new BooleanVector(capacity);
+    }
+
+    @Override
+    protected Object getPresent(int pos) {
+        return getBoolean(pos);
+    }
+
+    @Override
+    protected void setPresent(int pos, Object value) {
+        setBoolean(pos, (Boolean) value);
+    }
+
+    @Override
+    protected int capacity() {
+        return bits.length << 6;
+    }
+
+    @Override
+    protected void resize(int newCapacity) {
+        bits = Arrays.copyOf(bits, words(newCapacity));
+    }
+}
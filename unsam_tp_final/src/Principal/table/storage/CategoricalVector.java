@@ -0,0 +1,132 @@
+package Principal.table.storage;
+
+import java.util.Arrays;
+
+import utils.enums.DataType;
+import utils.validation.NA;
+
+/**
+ * Columna STRING codificada por diccionario: guarda un código int por celda
+ * y las cadenas distintas una sola vez en un StringDictionary.
+ * Conviene para columnas con pocos valores distintos repetidos en muchas filas.
+ * Las copias (copy, select, emptyLike) comparten el diccionario hasta que alguna de las dos
+ * columnas necesita agregarle un valor nuevo: entonces esa columna pasa a usar una copia
+ * propia. Así un diccionario compartido no se modifica nunca y las tablas copiadas
+ * son independientes.
+ */
+public final class CategoricalVector extends ColumnVector {
+    private StringDictionary dictionary;
+    // El diccionario lo usa también otra columna: se copia antes de agregarle valores
+    private boolean sharedDictionary;
+    private int[] codes;
+
+    public CategoricalVector(int capacity) {
+        this(new StringDictionary(), new int[Math.max(capacity, 0)], 0);
+    }
+
+    CategoricalVector(StringDictionary dictionary, int[] codes, int size) {
+        this.dictionary = dictionary;
+        this.codes = codes;
+        this.size = size;
+    }
+
+    // Columna nueva que comparte el diccionario de esta; las dos lo copian antes de modificarlo
+    private CategoricalVector sharing(int[] codes, int size) {
+        sharedDictionary = true;
+        CategoricalVector result = new CategoricalVector(dictionary, codes, size);
+        result.sharedDictionary = true;
+        return result;
+    }
+
+    // Arreglo interno (puede tener más capacidad que size), para VectorCodec
+    int[] rawCodes() {
+        return codes;
+    }
+
+    @Override
+    public DataType getType() {
+        return DataType.STRING;
+    }
+
+    public StringDictionary getDictionary() {
+        return dictionary;
+    }
+
+    public int getCode(int pos) {
+        return codes[pos];
+    }
+
+    public String getString(int pos) {
+        return dictionary.valueOf(codes[pos]);
+    }
+
+    /**
+     * Código de value en el diccionario de esta columna, agregándolo si no estaba.
+     * Si el diccionario es compartido y value es nuevo, antes pasa a usar una copia propia.
+     */
+    int intern(String value) {
+        if (sharedDictionary) {
+            int code = dictionary.codeOf(value);
+            if (code != StringDictionary.NO_CODE) {
+                return code;
+            }
+            dictionary = dictionary.copy();
+            sharedDictionary = false;
+        }
+        return dictionary.intern(value);
+    }
+
+    // Agrega un código ya resuelto con intern (para ColumnBuilder.appendAll)
+    void appendCode(int code) {
+        ensureCapacity(size + 1);
+        codes[size++] = code;
+    }
+
+    @Override
+    public boolean accepts(Object value) {
+        return value == NA.INSTANCE || value instanceof String;
+    }
+
+    @Override
+    public ColumnVector select(int[] positions) {
+        int[] out = new int[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            out[i] = codes[positions[i]];
+        }
+        CategoricalVector result = sharing(out, out.length);
+        copyNATo(result, positions);
+        return result;
+    }
+
+    @Override
+    public ColumnVector copy() {
+        CategoricalVector result = sharing(Arrays.copyOf(codes, size), size);
+        copyNATo(result);
+        return result;
+    }
+
+    @Override
+    protected ColumnVector emptyLike(int capacity) {
+        return sharing(new int[Math.max(capacity, 0)], 0);
+    }
+
+    @Override
+    protected Object getPresent(int pos) {
+        return dictionary.valueOf(codes[pos]);
+    }
+
+    @Override
+    protected void setPresent(int pos, Object value) {
+        codes[pos] = intern((String) value);
+    }
+
+    @Override
+    protected int capacity() {
+        return codes.length;
+    }
+
+    @Override
+    protected void resize(int newCapacity) {
+        codes = Arrays.copyOf(codes, newCapacity);
+    }
+}
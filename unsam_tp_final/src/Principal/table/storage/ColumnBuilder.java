@@ -0,0 +1,331 @@
+package Principal.table.storage;
+
+import java.util.Arrays;
+
+import utils.enums.DataType;
+
+/**
+ * Construye un ColumnVector agregando valores al final.
+ * Si llega un valor que no entra en el arreglo tipado, la columna pasa a ObjectVector
+ * y conserva el DataType declarado.
+ */
+public final class ColumnBuilder {
+    private ColumnVector vector;
+    // Con trackText: texto original de las celdas cuyo valor no lo reproduce al escribirlo
+    // (por ejemplo "007" o "1.50"), para que widen a STRING no lo pierda
+    private TextBuffer texts;
+    // Filas que se agregaron mientras la columna era INTEGER (se escriben como int)
+    private int intRows;
+    private final StringBuilder scratch = new StringBuilder();
+
+    public ColumnBuilder(DataType type, int expectedSize) {
+        this.vector = ColumnVector.create(type, expectedSize);
+    }
+
+    private ColumnBuilder(ColumnVector vector) {
+        this.vector = vector;
+    }
+
+    /**
+     * Builder para una columna STRING codificada por diccionario.
+     */
+    public static ColumnBuilder categorical(int expectedSize) {
+        return new ColumnBuilder(new CategoricalVector(expectedSize));
+    }
+
+    /**
+     * Pide guardar el texto original de las celdas que se anoten con noteText, para que un
+     * widen posterior a STRING devuelva exactamente el texto leído y no el valor reescrito.
+     * Sin efecto en columnas que ya son STRING.
+     */
+    public ColumnBuilder trackText() {
+        if (texts == null && vector.getType() != DataType.STRING) {
+            texts = new TextBuffer();
+        }
+        return this;
+    }
+
+    /**
+     * Anota el texto del que salió la última celda agregada. Solo se guarda si el valor,
+     * escrito de nuevo, no da el mismo texto (sin los espacios de los extremos).
+     */
+    public void noteText(CharSequence raw) {
+        if (texts == null) {
+            return;
+        }
+        int row = vector.size() - 1;
+        int start = 0;
+        int end = raw.length();
+        while (start < end && raw.charAt(start) <= ' ') start++;
+        while (end > start && raw.charAt(end - 1) <= ' ') end--;
+        boolean same;
+        if (vector instanceof IntVector) {
+            same = isPlainInt(raw, start, end);
+        } else if (vector instanceof BooleanVector) {
+            String text = ((BooleanVector) vector).getBoolean(row) ? "true" : "false";
+            same = regionEquals(raw, start, end, text);
+        } else if (vector instanceof DoubleVector) {
+            // Armar el texto del double es caro: si no es un decimal simple se guarda directamente
+            same = isPlainDecimal(raw, start, end, ((DoubleVector) vector).getDouble(row));
+        } else if (vector instanceof FloatVector) {
+            scratch.setLength(0);
+            scratch.append(((FloatVector) vector).getFloat(row));
+            same = regionEquals(raw, start, end, scratch);
+        } else {
+            // Objetos: el valor ya es lo que se guardó
+            same = true;
+        }
+        if (!same) {
+            texts.add(row, raw, start, end);
+        }
+    }
+
+    // Sin signo +, ceros a la izquierda ni "-0": como lo escribe Integer.toString
+    private static boolean isPlainInt(CharSequence s, int start, int end) {
+        int i = start;
+        if (i < end && s.charAt(i) == '-') i++;
+        if (i == end || (s.charAt(i) == '0' && (end - i > 1 || i > start))) {
+            return false;
+        }
+        for (; i < end; i++) {
+            char ch = s.charAt(i);
+            if (ch < '0' || ch > '9') return false;
+        }
+        return true;
+    }
+
+    /**
+     * Decimal con punto, sin ceros de más a los extremos, de hasta 15 cifras significativas y
+     * entre 1e-3 y 1e7 en valor absoluto (por ejemplo "34.0" o "-58.37"): Double.toString
+     * lo escribe igual, así que no hace falta armar el texto para compararlo.
+     */
+    private static boolean isPlainDecimal(CharSequence s, int start, int end, double value) {
+        double abs = Math.abs(value);
+        if (!(abs >= 1e-3 && abs < 1e7)) {
+            return false;
+        }
+        int i = start;
+        if (i < end && s.charAt(i) == '-') i++;
+        int intStart = i;
+        while (i < end && s.charAt(i) >= '0' && s.charAt(i) <= '9') i++;
+        int intDigits = i - intStart;
+        if (intDigits == 0 || (intDigits > 1 && s.charAt(intStart) == '0') || i == end || s.charAt(i) != '.') {
+            return false;
+        }
+        int fracStart = ++i;
+        while (i < end && s.charAt(i) >= '0' && s.charAt(i) <= '9') i++;
+        int fracDigits = i - fracStart;
+        if (i != end || fracDigits == 0 || (fracDigits > 1 && s.charAt(end - 1) == '0')) {
+            return false;
+        }
+        // Cifras significativas: sin los ceros iniciales (de "0.00x")
+        int significant = intDigits + fracDigits;
+        for (int k = intStart; k < end && (s.charAt(k) == '0' || s.charAt(k) == '.'); k++) {
+            if (s.charAt(k) == '0') significant--;
+        }
+        return significant <= 15;
+    }
+
+    private static boolean regionEquals(CharSequence s, int start, int end, CharSequence text) {
+        if (end - start != text.length()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (s.charAt(start + i) != text.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    public ColumnBuilder append(Object value) {
+        if (!vector.accepts(value)) {
+            vector = vector.toObjectVector();
+        }
+        vector.append(value);
+        return this;
+    }
+
+    public ColumnBuilder appendNA() {
+        vector.appendNA();
+        return this;
+    }
+
+    public ColumnBuilder appendInt(int value) {
+        if (vector instanceof IntVector) {
+            ((IntVector) vector).appendInt(value);
+            return this;
+        }
+        return append(value);
+    }
+
+    public ColumnBuilder appendDouble(double value) {
+        if (vector instanceof DoubleVector) {
+            ((DoubleVector) vector).appendDouble(value);
+            return this;
+        }
+        return append(value);
+    }
+
+    public ColumnBuilder appendFloat(float value) {
+        if (vector instanceof FloatVector) {
+            ((FloatVector) vector).appendFloat(value);
+            return this;
+        }
+        return append(value);
+    }
+
+    public ColumnBuilder appendBoolean(boolean value) {
+        if (vector instanceof BooleanVector) {
+            ((BooleanVector) vector).appendBoolean(value);
+            return this;
+        }
+        return append(value);
+    }
+
+    /**
+     * Agrega al final todos los valores de source. Si los vectores son del mismo tipo
+     * copia los valores primitivos sin boxing; entre columnas categóricas traduce cada
+     * código del diccionario de source al de esta columna una sola vez.
+     */
+    public ColumnBuilder appendAll(ColumnVector source) {
+        int n = source.size();
+        if (vector instanceof CategoricalVector && source instanceof CategoricalVector) {
+            CategoricalVector target = (CategoricalVector) vector;
+            CategoricalVector from = (CategoricalVector) source;
+            StringDictionary dictionary = from.getDictionary();
+            int[] remap = new int[dictionary.size()];
+            for (int code = 0; code < remap.length; code++) {
+                remap[code] = target.intern(dictionary.valueOf(code));
+            }
+            for (int i = 0; i < n; i++) {
+                if (from.isNA(i)) {
+                    target.appendNA();
+                } else {
+                    target.appendCode(remap[from.getCode(i)]);
+                }
+            }
+        } else if (vector instanceof IntVector && source instanceof IntVector) {
+            IntVector from = (IntVector) source;
+            for (int i = 0; i < n; i++) {
+                if (from.isNA(i)) appendNA(); else ((IntVector) vector).appendInt(from.getInt(i));
+            }
+        } else if (vector instanceof DoubleVector && source instanceof DoubleVector) {
+            DoubleVector from = (DoubleVector) source;
+            for (int i = 0; i < n; i++) {
+                if (from.isNA(i)) appendNA(); else ((DoubleVector) vector).appendDouble(from.getDouble(i));
+            }
+        } else if (vector instanceof FloatVector && source instanceof FloatVector) {
+            FloatVector from = (FloatVector) source;
+            for (int i = 0; i < n; i++) {
+                if (from.isNA(i)) appendNA(); else ((FloatVector) vector).appendFloat(from.getFloat(i));
+            }
+        } else if (vector instanceof BooleanVector && source instanceof BooleanVector) {
+            BooleanVector from = (BooleanVector) source;
+            for (int i = 0; i < n; i++) {
+                if (from.isNA(i)) appendNA(); else ((BooleanVector) vector).appendBoolean(from.getBoolean(i));
+            }
+        } else {
+            for (int i = 0; i < n; i++) {
+                append(source.get(i));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Cambia el tipo de la columna conservando los valores ya agregados:
+     * los números pasan a DOUBLE por conversión y cualquier valor pasa a STRING con su texto.
+     * Con trackText, el texto es el original de cada celda (por ejemplo "007", no "7");
+     * si no, el del valor. Las celdas NA siguen siendo NA.
+     * @throws IllegalArgumentException si algún valor no se puede convertir al nuevo tipo
+     */
+    public ColumnBuilder widen(DataType type) {
+        return widen(type, false);
+    }
+
+    /**
+     * Igual que widen(type), pero si la columna pasa a STRING y categorical es true queda
+     * codificada por diccionario, como la de un builder creado con categorical(...).
+     */
+    public ColumnBuilder widen(DataType type, boolean categorical) {
+        ColumnVector old = vector;
+        if (old.getType() == type) {
+            return this;
+        }
+        ColumnVector widened = categorical && type == DataType.STRING
+                ? new CategoricalVector(old.size() + 16)
+                : ColumnVector.create(type, old.size() + 16);
+        int next = 0;
+        for (int i = 0; i < old.size(); i++) {
+            if (old.isNA(i)) {
+                widened.appendNA();
+                continue;
+            }
+            Object value = old.get(i);
+            if (type == DataType.STRING) {
+                if (texts != null && next < texts.size && texts.rows[next] == i) {
+                    widened.append(texts.get(next++));
+                } else if (i < intRows || old instanceof IntVector) {
+                    widened.append(Integer.toString(((Number) value).intValue()));
+                } else {
+                    widened.append(value.toString());
+                }
+            } else if (type == DataType.DOUBLE && value instanceof Number) {
+                widened.append(((Number) value).doubleValue());
+            } else {
+                throw new IllegalArgumentException(
+                    "No se puede convertir '" + value + "' de " + old.getType() + " a " + type);
+            }
+        }
+        if (texts != null) {
+            if (type == DataType.STRING) {
+                // Una columna STRING ya no se ensancha
+                texts = null;
+            } else if (old instanceof IntVector) {
+                intRows = old.size();
+            }
+        }
+        vector = widened;
+        return this;
+    }
+
+    public int size() {
+        return vector.size();
+    }
+
+    public ColumnVector build() {
+        texts = null;
+        vector.trim();
+        return vector;
+    }
+
+    // Filas (crecientes) y textos guardados por noteText, uno detrás de otro en un char[]
+    private static final class TextBuffer {
+        int[] rows = new int[16];
+        // El texto i está en chars[ends[i - 1], ends[i])
+        int[] ends = new int[16];
+        char[] chars = new char[256];
+        int size;
+
+        void add(int row, CharSequence s, int start, int end) {
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+            }
+            int from = size == 0 ? 0 : ends[size - 1];
+            int to = from + end - start;
+            if (to > chars.length) {
+                chars = Arrays.copyOf(chars, Math.max(to, chars.length * 2));
+            }
+            for (int i = start; i < end; i++) {
+                chars[from + i - start] = s.charAt(i);
+            }
+            rows[size] = row;
+            ends[size++] = to;
+        }
+
+        String get(int i) {
+            int from = i == 0 ? 0 : ends[i - 1];
+            return new String(chars, from, ends[i] - from);
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package Principal.table.storage;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import utils.enums.IndexKind;
+import utils.enums.Operator;
+
+/**
+ * Índice secundario sobre un ColumnVector: a partir de un operador y un valor devuelve
+ * las posiciones físicas que lo cumplen sin recorrer la columna. Se guarda en el mismo
+ * vector, así que lo aprovechan todas las tablas y vistas que lo comparten.
+ * Queda asociado al estado del vector cuando se creó: si después el vector cambia
+ * (setAt, fillNA, ...), ColumnVector.getIndex deja de devolverlo.
+ * Compara igual que SimpleFilter: números como double y cadenas con compareTo.
+ * Las celdas NA no aparecen en ninguna consulta.
+ */
+public abstract class ColumnIndex {
+    private final ColumnVector vector;
+    private final int modCount;
+    private final int size;
+
+    private ColumnIndex(ColumnVector vector) {
+        this.vector = vector;
+        this.modCount = vector.modCount();
+        this.size = vector.size();
+    }
+
+    /**
+     * Crea un índice del tipo pedido sobre las posiciones actuales del vector.
+     * @throws IllegalArgumentException si la columna no es numérica ni de texto
+     */
+    static ColumnIndex build(ColumnVector vector, IndexKind kind) {
+        if (!isNumeric(vector) && !isText(vector)) {
+            throw new IllegalArgumentException("Solo se pueden indexar columnas numéricas o de texto, no " + vector.getType());
+        }
+        switch (kind) {
+            case HASH:   return new HashIndex(vector);
+            case SORTED: return isNumeric(vector) ? new SortedNumbers(vector) : new SortedStrings(vector);
+            default:
+                throw new IllegalArgumentException("Tipo de índice no soportado: " + kind);
+        }
+    }
+
+    public abstract IndexKind getKind();
+
+    /**
+     * Posiciones físicas, en cualquier orden, cuyo valor cumple "valor op value".
+     * @return null si este índice no puede responder la consulta (operador o tipo de value)
+     */
+    public abstract int[] lookup(Operator op, Object value);
+
+    // Sigue describiendo al vector: no hubo escrituras ni filas nuevas desde que se creó
+    boolean isCurrent() {
+        return vector.modCount() == modCount && vector.size() == size;
+    }
+
+    private static boolean isNumeric(ColumnVector vector) {
+        return vector instanceof IntVector || vector instanceof DoubleVector || vector instanceof FloatVector;
+    }
+
+    private static boolean isText(ColumnVector vector) {
+        return vector instanceof StringVector || vector instanceof CategoricalVector;
+    }
+
+    private static double numberAt(ColumnVector vector, int pos) {
+        if (vector instanceof IntVector) return ((IntVector) vector).getInt(pos);
+        if (vector instanceof DoubleVector) return ((DoubleVector) vector).getDouble(pos);
+        return ((FloatVector) vector).getFloat(pos);
+    }
+
+    private static String stringAt(ColumnVector vector, int pos) {
+        if (vector instanceof CategoricalVector) return ((CategoricalVector) vector).getString(pos);
+        return ((StringVector) vector).getString(pos);
+    }
+
+    /**
+     * Posiciones de cada valor distinto. Las columnas numéricas usan el valor como double
+     * (0.0 y -0.0 son la misma clave); NaN no es igual a nada, así que no se guarda.
+     */
+    private static final class HashIndex extends ColumnIndex {
+        private static final int[] NONE = new int[0];
+        private final boolean numeric;
+        private final Map<Object, int[]> positions;
+
+        HashIndex(ColumnVector vector) {
+            super(vector);
+            this.numeric = isNumeric(vector);
+            Map<Object, PositionList> groups = new HashMap<>();
+            for (int pos = 0; pos < vector.size(); pos++) {
+                if (vector.isNA(pos)) continue;
+                Object key = numeric ? numberKey(numberAt(vector, pos)) : stringAt(vector, pos);
+                if (key != null) {
+                    groups.computeIfAbsent(key, k -> new PositionList()).add(pos);
+                }
+            }
+            this.positions = new HashMap<>(groups.size() * 2);
+            for (Map.Entry<Object, PositionList> e : groups.entrySet()) {
+                positions.put(e.getKey(), e.getValue().toArray());
+            }
+        }
+
+        private static Double numberKey(double value) {
+            if (Double.isNaN(value)) return null;
+            return value == 0 ? 0.0 : value;
+        }
+
+        @Override
+        public IndexKind getKind() {
+            return IndexKind.HASH;
+        }
+
+        @Override
+        public int[] lookup(Operator op, Object value) {
+            if (op != Operator.EQ) return null;
+            Object key;
+            if (numeric && value instanceof Number) {
+                key = numberKey(((Number) value).doubleValue());
+            } else if (!numeric && value instanceof String) {
+                key = value;
+            } else {
+                return null;
+            }
+            int[] found = key == null ? null : positions.get(key);
+            return found == null ? NONE : found;
+        }
+    }
+
+    /**
+     * Claves ordenadas y la posición de cada una: un rango es un tramo contiguo que se
+     * encuentra con dos búsquedas binarias.
+     */
+    private abstract static class SortedIndex extends ColumnIndex {
+        // Posiciones en el orden de las claves
+        final int[] order;
+
+        SortedIndex(ColumnVector vector, int[] order) {
+            super(vector);
+            this.order = order;
+        }
+
+        @Override
+        public IndexKind getKind() {
+            return IndexKind.SORTED;
+        }
+
+        // Primer índice con clave >= value (o > value si strict); -1 si value no es del tipo de la columna
+        abstract int bound(Object value, boolean strict);
+
+        @Override
+        public int[] lookup(Operator op, Object value) {
+            int lower = bound(value, false);
+            if (lower < 0) return null;
+            int upper = bound(value, true);
+            switch (op) {
+                case EQ: return Arrays.copyOfRange(order, lower, upper);
+                case GT: return Arrays.copyOfRange(order, upper, order.length);
+                case GE: return Arrays.copyOfRange(order, lower, order.length);
+                case LT: return Arrays.copyOfRange(order, 0, lower);
+                case LE: return Arrays.copyOfRange(order, 0, upper);
+                default: return null;
+            }
+        }
+    }
+
+    // Columnas numéricas: claves double sin NA ni NaN (NaN no cumple ninguna comparación)
+    private static final class SortedNumbers extends SortedIndex {
+        private final double[] keys;
+
+        SortedNumbers(ColumnVector vector) {
+            this(vector, sortedPositions(vector));
+        }
+
+        private SortedNumbers(ColumnVector vector, int[] order) {
+            super(vector, order);
+            this.keys = new double[order.length];
+            for (int i = 0; i < order.length; i++) {
+                keys[i] = numberAt(vector, order[i]);
+            }
+        }
+
+        private static int[] sortedPositions(ColumnVector vector) {
+            PositionList valid = new PositionList();
+            for (int pos = 0; pos < vector.size(); pos++) {
+                if (!vector.isNA(pos) && !Double.isNaN(numberAt(vector, pos))) valid.add(pos);
+            }
+            Integer[] order = valid.boxed();
+            Arrays.sort(order, (a, b) -> Double.compare(numberAt(vector, a), numberAt(vector, b)));
+            return PositionList.unbox(order);
+        }
+
+        @Override
+        int bound(Object value, boolean strict) {
+            if (!(value instanceof Number)) return -1;
+            double v = ((Number) value).doubleValue();
+            int lo = 0;
+            int hi = keys.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (strict ? keys[mid] <= v : keys[mid] < v) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+
+        @Override
+        public int[] lookup(Operator op, Object value) {
+            if (value instanceof Number && Double.isNaN(((Number) value).doubleValue())) {
+                // Ninguna celda es igual, mayor ni menor que NaN
+                return new int[0];
+            }
+            return super.lookup(op, value);
+        }
+    }
+
+    private static final class SortedStrings extends SortedIndex {
+        private final String[] keys;
+
+        SortedStrings(ColumnVector vector) {
+            this(vector, sortedPositions(vector));
+        }
+
+        private SortedStrings(ColumnVector vector, int[] order) {
+            super(vector, order);
+            this.keys = new String[order.length];
+            for (int i = 0; i < order.length; i++) {
+                keys[i] = stringAt(vector, order[i]);
+            }
+        }
+
+        private static int[] sortedPositions(ColumnVector vector) {
+            PositionList valid = new PositionList();
+            for (int pos = 0; pos < vector.size(); pos++) {
+                if (!vector.isNA(pos)) valid.add(pos);
+            }
+            Integer[] order = valid.boxed();
+            Arrays.sort(order, (a, b) -> stringAt(vector, a).compareTo(stringAt(vector, b)));
+            return PositionList.unbox(order);
+        }
+
+        @Override
+        int bound(Object value, boolean strict) {
+            if (!(value instanceof String)) return -1;
+            String v = (String) value;
+            int lo = 0;
+            int hi = keys.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                int cmp = keys[mid].compareTo(v);
+                if (strict ? cmp <= 0 : cmp < 0) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+    }
+
+    // Lista de posiciones que crece sin boxing
+    private static final class PositionList {
+        private int[] items = new int[8];
+        private int size;
+
+        void add(int pos) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = pos;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(items, size);
+        }
+
+        Integer[] boxed() {
+            Integer[] out = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                out[i] = items[i];
+            }
+            return out;
+        }
+
+        static int[] unbox(Integer[] values) {
+            int[] out = new int[values.length];
+            for (int i = 0; i < values.length; i++) {
+                out[i] = values[i];
+            }
+            return out;
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package Principal.table.storage;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import utils.enums.DataType;
+import utils.enums.IndexKind;
+import utils.validation.NA;
+
+/**
+ * Almacenamiento columnar de una columna: un arreglo tipado según el DataType
+ * de la columna más un mapa de bits que marca las celdas faltantes (NA).
+ * Las posiciones son físicas (0..size-1) y no dependen del ID de la fila.
+ */
+public abstract class ColumnVector {
+    protected int size;
+    // Bit i encendido => la celda i es NA. Se reserva recién cuando aparece el primer NA.
+    private long[] na;
+    // true si el vector está compartido entre tablas independientes: hay que copiarlo antes de escribir
+    private boolean shared;
+    // Escrituras sobre celdas existentes; invalida los índices creados antes
+    private int modCount;
+    // Índices creados sobre el vector, uno por IndexKind (null si no hay ninguno)
+    private ColumnIndex[] indexes;
+
+    public abstract DataType getType();
+
+    /**
+     * Indica si el valor puede guardarse en este vector sin perder su tipo Java.
+     * NA siempre es aceptado.
+     */
+    public abstract boolean accepts(Object value);
+
+    /**
+     * Devuelve un nuevo vector con los valores de las posiciones indicadas, en ese orden.
+     */
+    public abstract ColumnVector select(int[] positions);
+
+    /**
+     * Copia independiente del vector (datos y NA).
+     */
+    public abstract ColumnVector copy();
+
+    /**
+     * Vector vacío del mismo tipo (y del mismo diccionario, si corresponde) con la capacidad indicada.
+     */
+    protected abstract ColumnVector emptyLike(int capacity);
+
+    protected abstract Object getPresent(int pos);
+
+    protected abstract void setPresent(int pos, Object value);
+
+    protected abstract int capacity();
+
+    protected abstract void resize(int newCapacity);
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isNA(int pos) {
+        int word = pos >>> 6;
+        return na != null && word < na.length && (na[word] & (1L << pos)) != 0;
+    }
+
+    /**
+     * Cantidad de celdas NA, contando los bits encendidos del mapa de NA.
+     */
+    public int countNA() {
+        if (na == null) return 0;
+        int words = Math.min(na.length, words(size));
+        int count = 0;
+        for (int w = 0; w < words; w++) {
+            count += Long.bitCount(na[w] & wordMask(w));
+        }
+        return count;
+    }
+
+    public boolean hasNA() {
+        return nextNA(0) >= 0;
+    }
+
+    /**
+     * Primera posición NA mayor o igual a from, o -1 si no hay más.
+     * Permite recorrer solo las celdas faltantes: for (int p = v.nextNA(0); p >= 0; p = v.nextNA(p + 1))
+     */
+    public int nextNA(int from) {
+        if (na == null || from >= size) return -1;
+        int w = from >>> 6;
+        int words = Math.min(na.length, words(size));
+        if (w >= words) return -1;
+        long bits = na[w] & (-1L << from) & wordMask(w);
+        while (true) {
+            if (bits != 0) {
+                return (w << 6) + Long.numberOfTrailingZeros(bits);
+            }
+            if (++w >= words) return -1;
+            bits = na[w] & wordMask(w);
+        }
+    }
+
+    /**
+     * Reemplaza todas las celdas NA por value recorriendo solo los bits encendidos.
+     * @return Cantidad de celdas reemplazadas
+     * @throws IllegalArgumentException si el vector no acepta value
+     */
+    public int fillNA(Object value) {
+        if (value == NA.INSTANCE || !accepts(value)) {
+            throw new IllegalArgumentException(
+                "El valor '" + value + "' no es válido para una columna " + getType());
+        }
+        if (na == null) return 0;
+        modCount++;
+        int words = Math.min(na.length, words(size));
+        int filled = 0;
+        for (int w = 0; w < words; w++) {
+            long bits = na[w] & wordMask(w);
+            while (bits != 0) {
+                setPresent((w << 6) + Long.numberOfTrailingZeros(bits), value);
+                bits &= bits - 1;
+                filled++;
+            }
+            na[w] &= ~wordMask(w);
+        }
+        return filled;
+    }
+
+    /**
+     * Valor en la posición indicada, con NA.INSTANCE para las celdas faltantes.
+     */
+    public Object get(int pos) {
+        Objects.checkIndex(pos, size);
+        return isNA(pos) ? NA.INSTANCE : getPresent(pos);
+    }
+
+    public void set(int pos, Object value) {
+        Objects.checkIndex(pos, size);
+        if (value == NA.INSTANCE) {
+            setNA(pos, true);
+            return;
+        }
+        if (!accepts(value)) {
+            throw new IllegalArgumentException(
+                "El valor '" + value + "' no es válido para una columna " + getType());
+        }
+        setPresent(pos, value);
+        setNA(pos, false);
+    }
+
+    public void append(Object value) {
+        ensureCapacity(size + 1);
+        size++;
+        set(size - 1, value);
+    }
+
+    public void appendNA() {
+        ensureCapacity(size + 1);
+        size++;
+        setNA(size - 1, true);
+    }
+
+    /**
+     * Libera la capacidad sobrante una vez terminada la carga.
+     */
+    public void trim() {
+        if (capacity() > size) {
+            resize(size);
+        }
+        if (na != null && na.length > words(size)) {
+            na = Arrays.copyOf(na, words(size));
+        }
+    }
+
+    /**
+     * Inverso de select: devuelve un vector de tamaño size donde el valor i de este vector
+     * queda en positions[i] y el resto de las posiciones son NA.
+     */
+    public ColumnVector scatter(int[] positions, int size) {
+        ColumnVector out = emptyLike(size);
+        out.size = size;
+        out.na = new long[words(size)];
+        Arrays.fill(out.na, -1L);
+        for (int i = 0; i < positions.length; i++) {
+            out.set(positions[i], get(i));
+        }
+        return out;
+    }
+
+    /**
+     * Cantidad de escrituras que tuvo el vector; cambia con cada set, setNA o fillNA.
+     */
+    public int modCount() {
+        return modCount;
+    }
+
+    /**
+     * Crea (o vuelve a crear) un índice del tipo indicado sobre el estado actual del vector.
+     * @throws IllegalArgumentException si la columna no es numérica ni de texto
+     */
+    public ColumnIndex createIndex(IndexKind kind) {
+        Objects.requireNonNull(kind, "kind no puede ser null");
+        ColumnIndex index = ColumnIndex.build(this, kind);
+        if (indexes == null) {
+            indexes = new ColumnIndex[IndexKind.values().length];
+        }
+        indexes[kind.ordinal()] = index;
+        return index;
+    }
+
+    /**
+     * Índice del tipo indicado, o null si no se creó o si el vector cambió desde entonces
+     * (en ese caso se descarta).
+     */
+    public ColumnIndex getIndex(IndexKind kind) {
+        if (indexes == null) {
+            return null;
+        }
+        ColumnIndex index = indexes[kind.ordinal()];
+        if (index != null && !index.isCurrent()) {
+            indexes[kind.ordinal()] = null;
+            return null;
+        }
+        return index;
+    }
+
+    /**
+     * Marca el vector como compartido entre tablas independientes (copy-on-write).
+     */
+    public void markShared() {
+        shared = true;
+    }
+
+    public boolean isShared() {
+        return shared;
+    }
+
+    /**
+     * Convierte este vector en uno de objetos genéricos que acepta cualquier valor.
+     * Se usa cuando una celda recibe un valor que no coincide con el tipo primitivo.
+     */
+    public ObjectVector toObjectVector() {
+        ObjectVector out = new ObjectVector(getType(), size);
+        for (int i = 0; i < size; i++) {
+            out.append(get(i));
+        }
+        return out;
+    }
+
+    protected void setNA(int pos, boolean missing) {
+        modCount++;
+        int word = pos >>> 6;
+        if (na == null || word >= na.length) {
+            if (!missing) return;
+            na = na == null ? new long[words(Math.max(pos + 1, capacity()))]
+                            : Arrays.copyOf(na, Math.max(word + 1, words(capacity())));
+        }
+        if (missing) {
+            na[word] |= 1L << pos;
+        } else {
+            na[word] &= ~(1L << pos);
+        }
+    }
+
+    // Mapa de NA interno (null si nunca hubo NA), para VectorCodec
+    long[] naWords() {
+        return na;
+    }
+
+    void setNAWords(long[] words) {
+        na = words;
+    }
+
+    protected void ensureCapacity(int minCapacity) {
+        int current = capacity();
+        if (minCapacity > current) {
+            resize(Math.max(minCapacity, current + (current >> 1) + 16));
+        }
+    }
+
+    /**
+     * Copia el estado NA de este vector a target, en el orden dado por positions.
+     */
+    protected void copyNATo(ColumnVector target, int[] positions) {
+        if (na == null) return;
+        for (int i = 0; i < positions.length; i++) {
+            if (isNA(positions[i])) {
+                target.setNA(i, true);
+            }
+        }
+    }
+
+    protected void copyNATo(ColumnVector target) {
+        if (na != null) {
+            target.na = Arrays.copyOf(na, na.length);
+        }
+    }
+
+    // Bits de la palabra w que corresponden a posiciones menores que size
+    private long wordMask(int w) {
+        int remaining = size - (w << 6);
+        return remaining >= 64 ? -1L : (1L << remaining) - 1;
+    }
+
+    protected static int words(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    /**
+     * Crea un vector vacío para el tipo indicado.
+     * @param type Tipo de la columna
+     * @param capacity Capacidad inicial estimada
+     */
+    public static ColumnVector create(DataType type, int capacity) {
+        Objects.requireNonNull(type, "type no puede ser null");
+        switch (type) {
+            case INTEGER: return new IntVector(capacity);
+            case FLOAT:   return new FloatVector(capacity);
+            case DOUBLE:  return new DoubleVector(capacity);
+            case BOOLEAN: return new BooleanVector(capacity);
+            case STRING:  return new StringVector(capacity);
+            default:
+                throw new IllegalArgumentException("Tipo desconocido: " + type);
+        }
+    }
+}
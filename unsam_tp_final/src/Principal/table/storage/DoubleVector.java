@@ -0,0 +1,94 @@
+package Principal.table.storage;
+
+import java.util.Arrays;
+
+import utils.enums.DataType;
+import utils.validation.NA;
+
+/**
+ * Columna DOUBLE respaldada por un arreglo double[].
+ */
+public final class DoubleVector extends ColumnVector {
+    private double[] data;
+
+    public DoubleVector(int capacity) {
+        this.data = new double[Math.max(capacity, 0)];
+    }
+
+    DoubleVector(double[] data, int size) {
+        this.data = data;
+        this.size = size;
+    }
+
+    // Arreglo interno (puede tener más capacidad que size), para VectorCodec
+    double[] rawData() {
+        return data;
+    }
+
+    @Override
+    public DataType getType() {
+        return DataType.DOUBLE;
+    }
+
+    public double getDouble(int pos) {
+        return data[pos];
+    }
+
+    public void setDouble(int pos, double value) {
+        data[pos] = value;
+        setNA(pos, false);
+    }
+
+    public void appendDouble(double value) {
+        ensureCapacity(size + 1);
+        data[size++] = value;
+    }
+
+    @Override
+    public boolean accepts(Object value) {
+        return value == NA.INSTANCE || value instanceof Double;
+    }
+
+    @Override
+    public ColumnVector select(int[] positions) {
+        double[] out = new double[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            out[i] = data[positions[i]];
+        }
+        DoubleVector result = new DoubleVector(out, out.length);
+        copyNATo(result, positions);
+        return result;
+    }
+
+    @Override
+    public ColumnVector copy() {
+        DoubleVector result = new DoubleVector(Arrays.copyOf(data, size), size);
+        copyNATo(result);
+        return result;
+    }
+
+    @Override
+    protected ColumnVector emptyLike(int capacity) {
+        return new DoubleVector(capacity);
+    }
+
+    @Override
+    protected Object getPresent(int pos) {
+        return data[pos];
+    }
+
+    @Override
+    protected void setPresent(int pos, Object value) {
+        data[pos] = (Double) value;
+    }
+
+    @Override
+    protected int capacity() {
+        return data.length;
+    }
+
+    @Override
+    protected void resize(int newCapacity) {
+        data = Arrays.copyOf(data, newCapacity);
+    }
+}
@@ -0,0 +1,94 @@
+package Principal.table.storage;
+
+import java.util.Arrays;
+
+import utils.enums.DataType;
+import utils.validation.NA;
+
+/**
+ * Columna FLOAT respaldada por un arreglo float[].
+ */
+public final class FloatVector extends ColumnVector {
+    private float[] data;
+
+    public FloatVector(int capacity) {
+        this.data = new float[Math.max(capacity, 0)];
+    }
+
+    FloatVector(float[] data, int size) {
+        this.data = data;
+        this.size = size;
+    }
+
+    // Arreglo interno (puede tener más capacidad que size), para VectorCodec
+    float[] rawData() {
+        return data;
+    }
+
+    @Override
+    public DataType getType() {
+        return DataType.FLOAT;
+    }
+
+    public float getFloat(int pos) {
+        return data[pos];
+    }
+
+    public void setFloat(int pos, float value) {
+        data[pos] = value;
+        setNA(pos, false);
+    }
+
+    public void appendFloat(float value) {
+        ensureCapacity(size + 1);
+        data[size++] = value;
+    }
+
+    @Override
+    public boolean accepts(Object value) {
+        return value == NA.INSTANCE || value instanceof Float;
+    }
+
+    @Override
+    public ColumnVector select(int[] positions) {
+        float[] out = new float[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            out[i] = data[positions[i]];
+        }
+        FloatVector result = new FloatVector(out, out.length);
+        copyNATo(result, positions);
+        return result;
+    }
+
+    @Override
+    public ColumnVector copy() {
+        FloatVector result = new FloatVector(Arrays.copyOf(data, size), size);
+        copyNATo(result);
+        return result;
+    }
+
+    @Override
+    protected ColumnVector emptyLike(int capacity) {
+        return new FloatVector(capacity);
+    }
+
+    @Override
+    protected Object getPresent(int pos) {
+        return data[pos];
+    }
+
+    @Override
+    protected void setPresent(int pos, Object value) {
+        data[pos] = (Float) value;
+    }
+
+    @Override
+    protected int capacity() {
+        return data.length;
+    }
+
+    @Override
+    protected void resize(int newCapacity) {
+        data = Arrays.copyOf(data, newCapacity);
+    }
+}
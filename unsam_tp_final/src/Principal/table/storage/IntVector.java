@@ -0,0 +1,94 @@
+package Principal.table.storage;
+
+import java.util.Arrays;
+
+import utils.enums.DataType;
+import utils.validation.NA;
+
+/**
+ * Columna INTEGER respaldada por un arreglo int[].
+ */
+public final class IntVector extends ColumnVector {
+    private int[] data;
+
+    public IntVector(int capacity) {
+        this.data = new int[Math.max(capacity, 0)];
+    }
+
+    IntVector(int[] data, int size) {
+        this.data = data;
+        this.size = size;
+    }
+
+    // Arreglo interno (puede tener más capacidad que size), para VectorCodec
+    int[] rawData() {
+        return data;
+    }
+
+    @Override
+    public DataType getType() {
+        return DataType.INTEGER;
+    }
+
+    public int getInt(int pos) {
+        return data[pos];
+    }
+
+    public void setInt(int pos, int value) {
+        data[pos] = value;
+        setNA(pos, false);
+    }
+
+    public void appendInt(int value) {
+        ensureCapacity(size + 1);
+        data[size++] = value;
+    }
+
+    @Override
+    public boolean accepts(Object value) {
+        return value == NA.INSTANCE || value instanceof Integer;
+    }
+
+    @Override
+    public ColumnVector select(int[] positions) {
+        int[] out = new int[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            out[i] = data[positions[i]];
+        }
+        IntVector result = new IntVector(out, out.length);
+        copyNATo(result, positions);
+        return result;
+    }
+
+    @Override
+    public ColumnVector copy() {
+        IntVector result = new IntVector(Arrays.copyOf(data, size), size);
+        copyNATo(result);
+        return result;
+    }
+
+    @Override
+    protected ColumnVector emptyLike(int capacity) {
+        return new IntVector(capacity);
+    }
+
+    @Override
+    protected Object getPresent(int pos) {
+        return data[pos];
+    }
+
+    @Override
+    protected void setPresent(int pos, Object value) {
+        data[pos] = (Integer) value;
+    }
+
+    @Override
+    protected int capacity() {
+        return data.length;
+    }
+
+    @Override
+    protected void resize(int newCapacity) {
+        data = Arrays.copyOf(data, newCapacity);
+    }
+}
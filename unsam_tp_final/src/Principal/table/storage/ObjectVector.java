@@ -0,0 +1,84 @@
+package Principal.table.storage;
+
+import java.util.Arrays;
+
+import utils.enums.DataType;
+
+/**
+ * Columna de respaldo que guarda objetos tal cual llegan.
+ * Se usa cuando una columna recibe valores que no coinciden con su DataType
+ * (por ejemplo, tablas armadas con from2D o celdas modificadas con Row.setValue).
+ */
+public final class ObjectVector extends ColumnVector {
+    private final DataType type;
+    private Object[] data;
+
+    public ObjectVector(DataType type, int capacity) {
+        this.type = type;
+        this.data = new Object[Math.max(capacity, 0)];
+    }
+
+    private ObjectVector(DataType type, Object[] data, int size) {
+        this.type = type;
+        this.data = data;
+        this.size = size;
+    }
+
+    @Override
+    public DataType getType() {
+        return type;
+    }
+
+    @Override
+    public boolean accepts(Object value) {
+        return true;
+    }
+
+    @Override
+    public ColumnVector select(int[] positions) {
+        Object[] out = new Object[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            out[i] = data[positions[i]];
+        }
+        ObjectVector result = new ObjectVector(type, out, out.length);
+        copyNATo(result, positions);
+        return result;
+    }
+
+    @Override
+    public ColumnVector copy() {
+        ObjectVector result = new ObjectVector(type, Arrays.copyOf(data, size), size);
+        copyNATo(result);
+        return result;
+    }
+
+    @Override
+    public ObjectVector toObjectVector() {
+        return this;
+    }
+
+    @Override
+    protected ColumnVector emptyLike(int capacity) {
+        return new ObjectVector(type, capacity);
+    }
+
+    @Override
+    protected Object getPresent(int pos) {
+        return data[pos];
+    }
+
+    @Override
+    protected void setPresent(int pos, Object value) {
+        data[pos] = value;
+    }
+
+    @Override
+    protected int capacity() {
+        return data.length;
+    }
+
+    @Override
+    protected void resize(int newCapacity) {
+        data = Arrays.copyOf(data, newCapacity);
+    }
+}
@@ -0,0 +1,73 @@
+package Principal.table.storage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Diccionario de cadenas de una columna categórica (y de sus copias, mientras no cambien).
+ * Cada cadena distinta recibe un código entero según el orden de aparición.
+ * Solo se agregan entradas, nunca se borran, así que los códigos existentes no cambian.
+ */
+public final class StringDictionary {
+    public static final int NO_CODE = -1;
+
+    private final List<String> values = new ArrayList<>();
+    private final Map<String, Integer> codes = new HashMap<>();
+
+    /**
+     * Código de la cadena, o NO_CODE si no está en el diccionario.
+     */
+    public int codeOf(String value) {
+        Integer code = codes.get(value);
+        return code == null ? NO_CODE : code;
+    }
+
+    /**
+     * Código de la cadena, agregándola al diccionario si todavía no estaba.
+     */
+    public int intern(String value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            values.add(value);
+            codes.put(value, code);
+        }
+        return code;
+    }
+
+    // Copia con los mismos códigos, para una columna que deja de compartir el diccionario
+    StringDictionary copy() {
+        StringDictionary copy = new StringDictionary();
+        copy.values.addAll(values);
+        copy.codes.putAll(codes);
+        return copy;
+    }
+
+    public String valueOf(int code) {
+        return values.get(code);
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    /**
+     * Posición de cada código en el orden lexicográfico de las cadenas.
+     * Permite ordenar una columna categórica comparando enteros.
+     */
+    public int[] ranks() {
+        Integer[] byValue = new Integer[values.size()];
+        for (int i = 0; i < byValue.length; i++) {
+            byValue[i] = i;
+        }
+        Arrays.sort(byValue, (a, b) -> values.get(a).compareTo(values.get(b)));
+        int[] ranks = new int[byValue.length];
+        for (int rank = 0; rank < byValue.length; rank++) {
+            ranks[byValue[rank]] = rank;
+        }
+        return ranks;
+    }
+}
@@ -0,0 +1,94 @@
+package Principal.table.storage;
+
+import java.util.Arrays;
+
+import utils.enums.DataType;
+import utils.validation.NA;
+
+/**
+ * Columna STRING respaldada por un arreglo String[].
+ */
+public final class StringVector extends ColumnVector {
+    private String[] data;
+
+    public StringVector(int capacity) {
+        this.data = new String[Math.max(capacity, 0)];
+    }
+
+    StringVector(String[] data, int size) {
+        this.data = data;
+        this.size = size;
+    }
+
+    // Arreglo interno (puede tener más capacidad que size), para VectorCodec
+    String[] rawData() {
+        return data;
+    }
+
+    @Override
+    public DataType getType() {
+        return DataType.STRING;
+    }
+
+    public String getString(int pos) {
+        return data[pos];
+    }
+
+    public void setString(int pos, String value) {
+        data[pos] = value;
+        setNA(pos, false);
+    }
+
+    public void appendString(String value) {
+        ensureCapacity(size + 1);
+        data[size++] = value;
+    }
+
+    @Override
+    public boolean accepts(Object value) {
+        return value == NA.INSTANCE || value instanceof String;
+    }
+
+    @Override
+    public ColumnVector select(int[] positions) {
+        String[] out = new String[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            out[i] = data[positions[i]];
+        }
+        StringVector result = new StringVector(out, out.length);
+        copyNATo(result, positions);
+        return result;
+    }
+
+    @Override
+    public ColumnVector copy() {
+        StringVector result = new StringVector(Arrays.copyOf(data, size), size);
+        copyNATo(result);
+        return result;
+    }
+
+    @Override
+    protected ColumnVector emptyLike(int capacity) {
+        return new StringVector(capacity);
+    }
+
+    @Override
+    protected Object getPresent(int pos) {
+        return data[pos];
+    }
+
+    @Override
+    protected void setPresent(int pos, Object value) {
+        data[pos] = (String) value;
+    }
+
+    @Override
+    protected int capacity() {
+        return data.length;
+    }
+
+    @Override
+    protected void resize(int newCapacity) {
+        data = Arrays.copyOf(data, newCapacity);
+    }
+}
@@ -0,0 +1,320 @@
+package Principal.table.storage;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+import utils.enums.DataType;
+
+/**
+ * Pasa un ColumnVector a un bloque binario contiguo y lo reconstruye sin parsear celda
+ * por celda: los arreglos primitivos y el mapa de NA se copian en bloque.
+ * Formato del bloque (little-endian):
+ *   byte tipo de vector | int size | int palabras de NA | long[] NA | datos
+ * donde los datos son:
+ *   INT / DOUBLE / FLOAT: el arreglo primitivo (size elementos)
+ *   BOOLEAN: long[] con los bits
+ *   STRING: int[size + 1] desplazamientos | bytes UTF-8
+ *   CATEGORICAL: int entradas | entradas del diccionario como STRING | int[size] códigos
+ *   OBJECT: por celda, un byte con la clase del valor seguido del valor
+ */
+public final class VectorCodec {
+    private static final byte INT = 1;
+    private static final byte DOUBLE = 2;
+    private static final byte FLOAT = 3;
+    private static final byte BOOLEAN = 4;
+    private static final byte STRING = 5;
+    private static final byte CATEGORICAL = 6;
+    private static final byte OBJECT = 7;
+
+    // Clase de cada valor dentro de un bloque OBJECT
+    private static final byte VALUE_NA = 0;
+    private static final byte VALUE_INT = 1;
+    private static final byte VALUE_DOUBLE = 2;
+    private static final byte VALUE_FLOAT = 3;
+    private static final byte VALUE_BOOLEAN = 4;
+    private static final byte VALUE_STRING = 5;
+    private static final byte VALUE_LONG = 6;
+
+    private VectorCodec() { }
+
+    /**
+     * Bloque binario con el contenido del vector, listo para escribir (posición 0, límite = largo).
+     * @throws IllegalArgumentException si el bloque no entra en un ByteBuffer (más de 2 GB)
+     */
+    public static ByteBuffer encode(ColumnVector vector) {
+        Objects.requireNonNull(vector, "vector no puede ser null");
+        int size = vector.size();
+        long[] na = vector.naWords();
+        int naWords = na == null ? 0 : Math.min(na.length, ColumnVector.words(size));
+        long headerBytes = 1 + 4 + 4 + 8L * naWords;
+
+        ByteBuffer out;
+        if (vector instanceof IntVector) {
+            out = allocate(headerBytes + 4L * size);
+            putHeader(out, INT, size, na, naWords);
+            out.asIntBuffer().put(((IntVector) vector).rawData(), 0, size);
+            skip(out, 4L * size);
+        } else if (vector instanceof DoubleVector) {
+            out = allocate(headerBytes + 8L * size);
+            putHeader(out, DOUBLE, size, na, naWords);
+            out.asDoubleBuffer().put(((DoubleVector) vector).rawData(), 0, size);
+            skip(out, 8L * size);
+        } else if (vector instanceof FloatVector) {
+            out = allocate(headerBytes + 4L * size);
+            putHeader(out, FLOAT, size, na, naWords);
+            out.asFloatBuffer().put(((FloatVector) vector).rawData(), 0, size);
+            skip(out, 4L * size);
+        } else if (vector instanceof BooleanVector) {
+            int words = ColumnVector.words(size);
+            out = allocate(headerBytes + 8L * words);
+            putHeader(out, BOOLEAN, size, na, naWords);
+            out.asLongBuffer().put(((BooleanVector) vector).rawBits(), 0, words);
+            skip(out, 8L * words);
+        } else if (vector instanceof StringVector) {
+            byte[][] bytes = utf8(((StringVector) vector).rawData(), size);
+            out = allocate(headerBytes + stringsLength(bytes));
+            putHeader(out, STRING, size, na, naWords);
+            putStrings(out, bytes);
+        } else if (vector instanceof CategoricalVector) {
+            CategoricalVector categorical = (CategoricalVector) vector;
+            StringDictionary dictionary = categorical.getDictionary();
+            String[] entries = new String[dictionary.size()];
+            for (int code = 0; code < entries.length; code++) {
+                entries[code] = dictionary.valueOf(code);
+            }
+            byte[][] bytes = utf8(entries, entries.length);
+            out = allocate(headerBytes + 4 + stringsLength(bytes) + 4L * size);
+            putHeader(out, CATEGORICAL, size, na, naWords);
+            out.putInt(entries.length);
+            putStrings(out, bytes);
+            out.asIntBuffer().put(categorical.rawCodes(), 0, size);
+            skip(out, 4L * size);
+        } else {
+            out = encodeObjects(vector, headerBytes, na, naWords);
+        }
+        out.flip();
+        return out;
+    }
+
+    /**
+     * Reconstruye el vector guardado en block a partir de su posición actual.
+     * La posición de block no cambia.
+     * @param type DataType declarado de la columna
+     * @throws IllegalArgumentException si el bloque no corresponde a una columna de ese tipo
+     */
+    public static ColumnVector decode(ByteBuffer block, DataType type) {
+        Objects.requireNonNull(block, "block no puede ser null");
+        Objects.requireNonNull(type, "type no puede ser null");
+        ByteBuffer in = block.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        byte kind = in.get();
+        int size = in.getInt();
+        int naWords = in.getInt();
+        long[] na = null;
+        if (naWords > 0) {
+            na = new long[naWords];
+            in.asLongBuffer().get(na);
+            skip(in, 8L * naWords);
+        }
+
+        ColumnVector vector;
+        switch (kind) {
+            case INT: {
+                requireType(type, DataType.INTEGER);
+                int[] data = new int[size];
+                in.asIntBuffer().get(data);
+                vector = new IntVector(data, size);
+                break;
+            }
+            case DOUBLE: {
+                requireType(type, DataType.DOUBLE);
+                double[] data = new double[size];
+                in.asDoubleBuffer().get(data);
+                vector = new DoubleVector(data, size);
+                break;
+            }
+            case FLOAT: {
+                requireType(type, DataType.FLOAT);
+                float[] data = new float[size];
+                in.asFloatBuffer().get(data);
+                vector = new FloatVector(data, size);
+                break;
+            }
+            case BOOLEAN: {
+                requireType(type, DataType.BOOLEAN);
+                long[] bits = new long[ColumnVector.words(size)];
+                in.asLongBuffer().get(bits);
+                vector = new BooleanVector(bits, size);
+                break;
+            }
+            case STRING: {
+                requireType(type, DataType.STRING);
+                vector = new StringVector(getStrings(in, size), size);
+                break;
+            }
+            case CATEGORICAL: {
+                requireType(type, DataType.STRING);
+                int entryCount = in.getInt();
+                String[] entries = getStrings(in, entryCount);
+                StringDictionary dictionary = new StringDictionary();
+                for (String entry : entries) {
+                    dictionary.intern(entry);
+                }
+                int[] codes = new int[size];
+                in.asIntBuffer().get(codes);
+                vector = new CategoricalVector(dictionary, codes, size);
+                break;
+            }
+            case OBJECT:
+                // Las celdas NA vienen marcadas dentro del bloque
+                return decodeObjects(in, type, size);
+            default:
+                throw new IllegalArgumentException("Tipo de bloque desconocido: " + kind);
+        }
+        vector.setNAWords(na);
+        if (vector instanceof StringVector && na != null) {
+            // Las celdas NA se guardaron como cadenas vacías
+            String[] data = ((StringVector) vector).rawData();
+            for (int pos = vector.nextNA(0); pos >= 0; pos = vector.nextNA(pos + 1)) {
+                data[pos] = null;
+            }
+        }
+        return vector;
+    }
+
+    private static ByteBuffer encodeObjects(ColumnVector vector, long headerBytes, long[] na, int naWords) {
+        int size = vector.size();
+        byte[][] strings = new byte[size][];
+        long length = headerBytes;
+        for (int pos = 0; pos < size; pos++) {
+            Object value = vector.isNA(pos) ? null : vector.get(pos);
+            length += 1;
+            if (value instanceof Integer || value instanceof Float) {
+                length += 4;
+            } else if (value instanceof Double || value instanceof Long) {
+                length += 8;
+            } else if (value instanceof Boolean) {
+                length += 1;
+            } else if (value != null) {
+                // Cualquier otro objeto se guarda como su texto
+                strings[pos] = value.toString().getBytes(StandardCharsets.UTF_8);
+                length += 4 + strings[pos].length;
+            }
+        }
+
+        ByteBuffer out = allocate(length);
+        putHeader(out, OBJECT, size, na, naWords);
+        for (int pos = 0; pos < size; pos++) {
+            Object value = vector.isNA(pos) ? null : vector.get(pos);
+            if (value == null) {
+                out.put(VALUE_NA);
+            } else if (value instanceof Integer) {
+                out.put(VALUE_INT).putInt((Integer) value);
+            } else if (value instanceof Double) {
+                out.put(VALUE_DOUBLE).putDouble((Double) value);
+            } else if (value instanceof Float) {
+                out.put(VALUE_FLOAT).putFloat((Float) value);
+            } else if (value instanceof Long) {
+                out.put(VALUE_LONG).putLong((Long) value);
+            } else if (value instanceof Boolean) {
+                out.put(VALUE_BOOLEAN).put((byte) ((Boolean) value ? 1 : 0));
+            } else {
+                out.put(VALUE_STRING).putInt(strings[pos].length).put(strings[pos]);
+            }
+        }
+        return out;
+    }
+
+    private static ColumnVector decodeObjects(ByteBuffer in, DataType type, int size) {
+        ObjectVector vector = new ObjectVector(type, size);
+        for (int pos = 0; pos < size; pos++) {
+            byte tag = in.get();
+            switch (tag) {
+                case VALUE_NA:      vector.appendNA(); break;
+                case VALUE_INT:     vector.append(in.getInt()); break;
+                case VALUE_DOUBLE:  vector.append(in.getDouble()); break;
+                case VALUE_FLOAT:   vector.append(in.getFloat()); break;
+                case VALUE_LONG:    vector.append(in.getLong()); break;
+                case VALUE_BOOLEAN: vector.append(in.get() != 0); break;
+                case VALUE_STRING: {
+                    byte[] bytes = new byte[in.getInt()];
+                    in.get(bytes);
+                    vector.append(new String(bytes, StandardCharsets.UTF_8));
+                    break;
+                }
+                default:
+                    throw new IllegalArgumentException("Valor desconocido en bloque de objetos: " + tag);
+            }
+        }
+        return vector;
+    }
+
+    private static ByteBuffer allocate(long length) {
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("La columna ocupa más de 2 GB y no entra en un bloque");
+        }
+        return ByteBuffer.allocate((int) length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static void putHeader(ByteBuffer out, byte kind, int size, long[] na, int naWords) {
+        out.put(kind).putInt(size).putInt(naWords);
+        if (naWords > 0) {
+            out.asLongBuffer().put(na, 0, naWords);
+            skip(out, 8L * naWords);
+        }
+    }
+
+    // Las vistas (asIntBuffer, etc.) no mueven la posición del buffer original
+    private static void skip(ByteBuffer buffer, long bytes) {
+        buffer.position(buffer.position() + (int) bytes);
+    }
+
+    private static byte[][] utf8(String[] values, int count) {
+        byte[][] bytes = new byte[count][];
+        for (int i = 0; i < count; i++) {
+            bytes[i] = values[i] == null ? new byte[0] : values[i].getBytes(StandardCharsets.UTF_8);
+        }
+        return bytes;
+    }
+
+    private static long stringsLength(byte[][] bytes) {
+        long length = 4L * (bytes.length + 1);
+        for (byte[] b : bytes) {
+            length += b.length;
+        }
+        return length;
+    }
+
+    private static void putStrings(ByteBuffer out, byte[][] bytes) {
+        int offset = 0;
+        out.putInt(offset);
+        for (byte[] b : bytes) {
+            offset += b.length;
+            out.putInt(offset);
+        }
+        for (byte[] b : bytes) {
+            out.put(b);
+        }
+    }
+
+    private static String[] getStrings(ByteBuffer in, int count) {
+        int[] offsets = new int[count + 1];
+        in.asIntBuffer().get(offsets);
+        skip(in, 4L * offsets.length);
+        byte[] bytes = new byte[offsets[count]];
+        in.get(bytes);
+        String[] values = new String[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = new String(bytes, offsets[i], offsets[i + 1] - offsets[i], StandardCharsets.UTF_8);
+        }
+        return values;
+    }
+
+    private static void requireType(DataType declared, DataType stored) {
+        if (declared != stored) {
+            throw new IllegalArgumentException(
+                "El bloque guarda una columna " + stored + " y se esperaba " + declared);
+        }
+    }
+}
@@ -5,6 +5,8 @@ import utils.enums.DataType;
 import utils.enums.LogicalOperator;
 import utils.enums.Operator;
 import io.CsvReader;
+import io.BinaryTableReader;
+import io.BinaryTableWriter;
 import io.CsvWriter;
 import Principal.filter.SimpleFilter;
 import Principal.sort.SimpleSorter;
@@ -19,6 +21,7 @@ import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 import Principal.filter.CompFilter;
 import Principal.filter.Filter;
@@ -41,6 +44,24 @@ public class Main {
             DataTable dataTable = lector.read(filePath, ",");
             timer.stop();
             System.out.println("Tiempo de lectura del CSV: " + timer.getFormattedElapsedTime());
+            timer.start();
+            DataTable soloTres = lector.read(filePath, ",", List.of("comuna", "nombre_cientifico", "altura_arbol"));
+            timer.stop();
+            System.out.println("Solo columnas " + soloTres.getColumnLabels() + ": " + soloTres.getRowCount() + " filas");
+            System.out.println("Tiempo de lectura de 3 columnas: " + timer.getFormattedElapsedTime());
+            timer.start();
+            CsvReader lectorCsv = new CsvReader();
+            DataTable soloComuna1 = lectorCsv.read(filePath, ",", null, new SimpleFilter("comuna", Operator.EQ, 1));
+            timer.stop();
+            System.out.println("Solo filas con comuna == 1: " + soloComuna1.getRowCount() + " filas");
+            System.out.println("Tiempo de lectura filtrada: " + timer.getFormattedElapsedTime());
+            timer.start();
+            try (Stream<Row> filas = lectorCsv.stream(filePath, ",")) {
+                filas.limit(3).forEach(fila -> System.out.println("  Fila " + fila.getIndex() + ": "
+                        + fila.getValue("nombre_cientifico") + " (" + fila.getValue("altura_arbol") + ")"));
+            }
+            timer.stop();
+            System.out.println("Tiempo de lectura de las primeras 3 filas (stream): " + timer.getFormattedElapsedTime());
 
             // ==========================================================
             // 2) INFORMACIÓN BÁSICA DE LA TABLA
@@ -94,6 +115,29 @@ public class Main {
             timer.stop();
             System.out.println("Tiempo de exportación a CSV: " + timer.getFormattedElapsedTime());
 
+            // ==========================================================
+            // 4b) FORMATO BINARIO COLUMNAR
+            // ==========================================================
+            System.out.println("\n" + "=".repeat(80));
+            System.out.println("4b) FORMATO BINARIO COLUMNAR");
+            System.out.println("=".repeat(80));
+            String binPath = "src\\csvPrueva\\arbolado-publico-lineal-2017-2018.dtb";
+            timer.start();
+            new BinaryTableWriter().write(dataTable, binPath);
+            timer.stop();
+            System.out.println("Tiempo de escritura binaria: " + timer.getFormattedElapsedTime());
+            timer.start();
+            DataTable desdeBinario = new BinaryTableReader().read(binPath);
+            timer.stop();
+            System.out.println("Tabla releída: " + desdeBinario.getRowCount() + " filas, "
+                    + desdeBinario.getColumnCount() + " columnas");
+            System.out.println("Tiempo de lectura binaria: " + timer.getFormattedElapsedTime());
+            timer.start();
+            DataTable soloDos = new BinaryTableReader().read(binPath, List.of("nombre_cientifico", "altura_arbol"));
+            timer.stop();
+            System.out.println("Solo columnas " + soloDos.getColumnLabels() + ": " + soloDos.getRowCount() + " filas");
+            System.out.println("Tiempo de lectura de 2 columnas: " + timer.getFormattedElapsedTime());
+
             // ==========================================================
             // 5) VISUALIZACIÓN
             // ==========================================================
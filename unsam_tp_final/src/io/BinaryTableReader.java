@@ -0,0 +1,240 @@
+// BinaryTableReader.java - clase o interfaz de io
+package io;
+
+import io.interfaces.TableReader;
+import Principal.table.Column;
+import Principal.table.DataTable;
+import Principal.table.storage.ColumnVector;
+import Principal.table.storage.VectorCodec;
+import utils.enums.DataType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * Lee tablas guardadas por BinaryTableWriter. Mapea el archivo en memoria y copia
+ * cada bloque de columna directo a su arreglo tipado, sin parsear ni inferir tipos.
+ * Se pueden abrir solo algunas columnas: las demás no se leen del disco.
+ */
+public class BinaryTableReader implements TableReader {
+
+    /**
+     * El formato binario no usa delimitador: el parámetro se ignora.
+     */
+    @Override
+    public DataTable read(String filePath, String delimiter) throws IOException {
+        return read(filePath);
+    }
+
+    public DataTable read(String filePath) throws IOException {
+        return read(filePath, (Collection<String>) null);
+    }
+
+    @Override
+    public DataTable read(String filePath, String delimiter, Collection<String> columnNames) throws IOException {
+        return read(filePath, Objects.requireNonNull(columnNames, "columnNames no puede ser null"));
+    }
+
+    @Override
+    public DataTable read(String filePath, String delimiter, Predicate<String> columnFilter) throws IOException {
+        Objects.requireNonNull(columnFilter, "columnFilter no puede ser null");
+        List<String> names = new ArrayList<>();
+        for (Column column : readColumns(filePath)) {
+            if (columnFilter.test(column.getLabel())) {
+                names.add(column.getLabel());
+            }
+        }
+        return read(filePath, names);
+    }
+
+    /**
+     * El archivo binario ya guarda los tipos: el esquema solo se verifica contra el archivo.
+     * @throws IllegalArgumentException si las columnas o sus tipos no coinciden con los guardados
+     */
+    @Override
+    public DataTable read(String filePath, String delimiter, List<Column> schema) throws IOException {
+        Objects.requireNonNull(schema, "schema no puede ser null");
+        List<Column> stored = readColumns(filePath);
+        if (stored.size() != schema.size()) {
+            throw new IllegalArgumentException(
+                "El esquema tiene " + schema.size() + " columnas y el archivo " + stored.size());
+        }
+        for (int c = 0; c < stored.size(); c++) {
+            checkColumn(stored.get(c), schema.get(c).getLabel(), schema.get(c).getType());
+        }
+        return read(filePath);
+    }
+
+    /**
+     * El archivo binario ya guarda los tipos: cada tipo indicado solo se verifica contra el archivo.
+     * @throws IllegalArgumentException si alguna columna no existe o tiene otro tipo
+     */
+    @Override
+    public DataTable read(String filePath, String delimiter, Map<String, DataType> schema) throws IOException {
+        Objects.requireNonNull(schema, "schema no puede ser null");
+        Map<String, Column> stored = new LinkedHashMap<>();
+        for (Column column : readColumns(filePath)) {
+            stored.putIfAbsent(column.getLabel(), column);
+        }
+        for (Map.Entry<String, DataType> entry : schema.entrySet()) {
+            Column column = stored.get(entry.getKey());
+            if (column == null) {
+                throw new IllegalArgumentException("La columna '" + entry.getKey() + "' no existe.");
+            }
+            checkColumn(column, entry.getKey(), entry.getValue());
+        }
+        return read(filePath);
+    }
+
+    private static void checkColumn(Column stored, String label, DataType type) {
+        if (!stored.getLabel().equals(label) || stored.getType() != type) {
+            throw new IllegalArgumentException("La columna '" + stored.getLabel() + "' es " + stored.getType()
+                    + " en el archivo y el esquema indica '" + label + "' " + type);
+        }
+    }
+
+    /**
+     * Lee solo las columnas indicadas, en ese orden.
+     * @param columnNames Columnas a leer, o null para leerlas todas
+     * @throws IllegalArgumentException si alguna columna no está en el archivo
+     */
+    public DataTable read(String filePath, Collection<String> columnNames) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            Footer footer = readFooter(channel, filePath);
+
+            List<Integer> selected = new ArrayList<>();
+            if (columnNames == null) {
+                for (int c = 0; c < footer.columns.size(); c++) {
+                    selected.add(c);
+                }
+            } else {
+                for (String name : columnNames) {
+                    Integer ordinal = footer.ordinals.get(name);
+                    if (ordinal == null) {
+                        throw new IllegalArgumentException("La columna '" + name + "' no existe.");
+                    }
+                    selected.add(ordinal);
+                }
+            }
+
+            List<Column> columns = new ArrayList<>(selected.size());
+            List<ColumnVector> vectors = new ArrayList<>(selected.size());
+            for (int c : selected) {
+                Column column = footer.columns.get(c);
+                ColumnVector vector;
+                try {
+                    vector = VectorCodec.decode(map(channel, footer.offsets[c], footer.lengths[c]), column.getType());
+                } catch (IllegalArgumentException | java.nio.BufferUnderflowException e) {
+                    throw new IOException("Bloque inválido para la columna '" + column.getLabel() + "' en " + filePath, e);
+                }
+                if (vector.size() != footer.rowCount) {
+                    throw new IOException("La columna '" + column.getLabel() + "' no tiene " + footer.rowCount + " filas");
+                }
+                columns.add(column);
+                vectors.add(vector);
+            }
+
+            int[] rowIds = null;
+            if (footer.idsOffset >= 0) {
+                rowIds = new int[footer.rowCount];
+                map(channel, footer.idsOffset, footer.idsLength).asIntBuffer().get(rowIds);
+            } else if (vectors.isEmpty()) {
+                // Sin columnas la cantidad de filas sale solo de los IDs
+                rowIds = new int[footer.rowCount];
+                for (int i = 0; i < rowIds.length; i++) {
+                    rowIds[i] = i;
+                }
+            }
+            return new DataTable(columns, vectors, rowIds);
+        }
+    }
+
+    /**
+     * Columnas guardadas en el archivo, sin leer sus datos.
+     */
+    public List<Column> readColumns(String filePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            return readFooter(channel, filePath).columns;
+        }
+    }
+
+    private static Footer readFooter(FileChannel channel, String filePath) throws IOException {
+        long fileSize = channel.size();
+        if (fileSize < BinaryTableWriter.HEADER_BYTES) {
+            throw new IOException("No es un archivo binario de tabla: " + filePath);
+        }
+        MappedByteBuffer header = map(channel, 0, BinaryTableWriter.HEADER_BYTES);
+        if (header.getInt() != BinaryTableWriter.MAGIC) {
+            throw new IOException("No es un archivo binario de tabla: " + filePath);
+        }
+        int version = header.getInt();
+        if (version != BinaryTableWriter.VERSION) {
+            throw new IOException("Versión de archivo no soportada: " + version);
+        }
+        long footerOffset = header.getLong();
+        if (footerOffset < BinaryTableWriter.HEADER_BYTES || footerOffset >= fileSize) {
+            throw new IOException("Archivo binario incompleto: " + filePath);
+        }
+
+        MappedByteBuffer in = map(channel, footerOffset, fileSize - footerOffset);
+        Footer footer = new Footer();
+        footer.rowCount = in.getInt();
+        int columnCount = in.getInt();
+        footer.idsOffset = in.getLong();
+        footer.idsLength = in.getLong();
+        footer.columns = new ArrayList<>(columnCount);
+        footer.offsets = new long[columnCount];
+        footer.lengths = new long[columnCount];
+        footer.ordinals = new LinkedHashMap<>();
+        for (int c = 0; c < columnCount; c++) {
+            String label = getString(in);
+            DataType type;
+            try {
+                type = DataType.valueOf(getString(in));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Tipo desconocido para la columna '" + label + "'", e);
+            }
+            footer.columns.add(new Column(label, type));
+            footer.ordinals.putIfAbsent(label, c);
+            footer.offsets[c] = in.getLong();
+            footer.lengths[c] = in.getLong();
+        }
+        return footer;
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long offset, long length) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    private static String getString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Índice del archivo: esquema y ubicación de cada bloque
+    private static final class Footer {
+        int rowCount;
+        long idsOffset;
+        long idsLength;
+        List<Column> columns;
+        Map<String, Integer> ordinals;
+        long[] offsets;
+        long[] lengths;
+    }
+}
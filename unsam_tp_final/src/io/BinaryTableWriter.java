@@ -0,0 +1,128 @@
+// BinaryTableWriter.java - clase o interfaz de io
+package io;
+
+import io.interfaces.TableWriter;
+import Principal.table.Column;
+import Principal.table.DataTable;
+import Principal.table.Table;
+import Principal.table.storage.ColumnVector;
+import Principal.table.storage.VectorCodec;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Guarda una tabla en el formato binario columnar que lee BinaryTableReader.
+ * Estructura del archivo (little-endian):
+ *   encabezado: int MAGIC | int VERSION | long posición del índice
+ *   bloques:    IDs de fila (si no son 0..n-1) y un bloque de VectorCodec por columna
+ *   índice:     int filas | int columnas | long posición y largo de los IDs |
+ *               por columna: etiqueta, DataType, posición y largo de su bloque
+ * El índice va al final para poder escribir los bloques en una sola pasada; con él,
+ * el lector mapea solo los bloques de las columnas que necesita.
+ */
+public class BinaryTableWriter implements TableWriter {
+    static final int MAGIC = 0x44544231; // "DTB1"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+
+    /**
+     * El formato binario no usa delimitador ni encabezado: esos parámetros se ignoran.
+     */
+    @Override
+    public void write(Table table, String filePath, String delimiter, boolean withHeader) throws IOException {
+        write(table, filePath);
+    }
+
+    public void write(Table table, String filePath) throws IOException {
+        DataTable data = table instanceof DataTable ? (DataTable) table : table.deepCopy(table);
+        List<Column> columns = data.getColumns();
+        int rowCount = data.getRowCount();
+
+        // Posiciones de las filas en los vectores (las vistas comparten vectores más grandes)
+        int[] positions = new int[rowCount];
+        boolean compact = true;
+        for (int i = 0; i < rowCount; i++) {
+            positions[i] = data.storagePosition(i);
+            compact &= positions[i] == i;
+        }
+
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel.position(HEADER_BYTES);
+
+            // IDs de fila, solo si no son 0..n-1
+            int[] ids = data.getRowIds();
+            long idsOffset = -1;
+            long idsLength = 0;
+            if (!isIdentity(ids)) {
+                ByteBuffer block = ByteBuffer.allocate(4 * ids.length).order(ByteOrder.LITTLE_ENDIAN);
+                block.asIntBuffer().put(ids);
+                idsOffset = channel.position();
+                idsLength = writeFully(channel, block);
+            }
+
+            // Un bloque por columna
+            long[] offsets = new long[columns.size()];
+            long[] lengths = new long[columns.size()];
+            for (int c = 0; c < columns.size(); c++) {
+                ColumnVector vector = data.getColumnVector(columns.get(c).getLabel());
+                if (!compact || vector.size() != rowCount) {
+                    vector = vector.select(positions);
+                }
+                offsets[c] = channel.position();
+                lengths[c] = writeFully(channel, VectorCodec.encode(vector));
+            }
+
+            // Índice al final y su posición en el encabezado
+            long footerOffset = channel.position();
+            writeFully(channel, footer(columns, rowCount, idsOffset, idsLength, offsets, lengths));
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putLong(footerOffset).flip();
+            channel.position(0);
+            writeFully(channel, header);
+        }
+    }
+
+    private static ByteBuffer footer(List<Column> columns, int rowCount, long idsOffset, long idsLength,
+                                     long[] offsets, long[] lengths) {
+        byte[][] labels = new byte[columns.size()][];
+        byte[][] types = new byte[columns.size()][];
+        int length = 4 + 4 + 8 + 8;
+        for (int c = 0; c < columns.size(); c++) {
+            labels[c] = columns.get(c).getLabel().getBytes(StandardCharsets.UTF_8);
+            types[c] = columns.get(c).getType().name().getBytes(StandardCharsets.UTF_8);
+            length += 4 + labels[c].length + 4 + types[c].length + 8 + 8;
+        }
+        ByteBuffer footer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        footer.putInt(rowCount).putInt(columns.size()).putLong(idsOffset).putLong(idsLength);
+        for (int c = 0; c < columns.size(); c++) {
+            footer.putInt(labels[c].length).put(labels[c]);
+            footer.putInt(types[c].length).put(types[c]);
+            footer.putLong(offsets[c]).putLong(lengths[c]);
+        }
+        footer.flip();
+        return footer;
+    }
+
+    private static long writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        long written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer);
+        }
+        return written;
+    }
+
+    private static boolean isIdentity(int[] ids) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] != i) return false;
+        }
+        return true;
+    }
+}
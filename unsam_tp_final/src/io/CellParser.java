@@ -0,0 +1,227 @@
+// CellParser.java - clase o interfaz de io
+package io;
+
+import utils.enums.DataType;
+
+/**
+ * Clasifica y parsea celdas de texto recorriendo los caracteres, sin lanzar excepciones:
+ * cada tryParse devuelve false si el texto no es válido y deja el resultado en el parser.
+ * Trabaja sobre un rango [start, end) de cualquier CharSequence, así que no hace falta
+ * crear un String por celda. Los espacios al principio y al final se ignoran, igual que trim().
+ * No es thread-safe: cada lectura usa su propia instancia.
+ */
+public final class CellParser {
+    // Potencias de 10 exactas en double: mantisa * 10^e es exacto y bien redondeado hasta 10^22
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    // Dígitos significativos que entran en la mantisa exacta de un double
+    private static final int MAX_EXACT_DIGITS = 15;
+
+    private long longValue;
+    private double doubleValue;
+    private boolean booleanValue;
+    // Rango sin espacios de la última celda recortada
+    private int from;
+    private int to;
+
+    public int intValue() {
+        return (int) longValue;
+    }
+
+    public long longValue() {
+        return longValue;
+    }
+
+    public double doubleValue() {
+        return doubleValue;
+    }
+
+    public boolean booleanValue() {
+        return booleanValue;
+    }
+
+    public boolean isBlank(CharSequence s) {
+        return s == null || !trim(s, 0, s.length());
+    }
+
+    /**
+     * Tipo de la celda: INTEGER, DOUBLE, BOOLEAN o STRING; null si está vacía o solo tiene espacios.
+     */
+    public DataType classify(CharSequence s, int start, int end) {
+        if (!trim(s, start, end)) {
+            return null;
+        }
+        if (tryParseInt(s, start, end)) {
+            return DataType.INTEGER;
+        }
+        if (tryParseDouble(s, start, end)) {
+            return DataType.DOUBLE;
+        }
+        if (tryParseBoolean(s, start, end)) {
+            return DataType.BOOLEAN;
+        }
+        return DataType.STRING;
+    }
+
+    public DataType classify(CharSequence s) {
+        return classify(s, 0, s.length());
+    }
+
+    /**
+     * Entero con signo opcional en el rango de int (como Integer.parseInt).
+     */
+    public boolean tryParseInt(CharSequence s, int start, int end) {
+        return tryParseLong(s, start, end) && longValue == (int) longValue;
+    }
+
+    /**
+     * Entero con signo opcional en el rango de long (como Long.parseLong).
+     */
+    public boolean tryParseLong(CharSequence s, int start, int end) {
+        if (!trim(s, start, end)) return false;
+        int i = from;
+        boolean negative = false;
+        char first = s.charAt(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (++i == to) return false;
+        }
+        // Se acumula en negativo para poder representar Long.MIN_VALUE
+        long result = 0;
+        for (; i < to; i++) {
+            int digit = s.charAt(i) - '0';
+            if (digit < 0 || digit > 9) return false;
+            if (result < (Long.MIN_VALUE + digit) / 10) return false;
+            result = result * 10 - digit;
+        }
+        if (!negative) {
+            if (result == Long.MIN_VALUE) return false;
+            result = -result;
+        }
+        longValue = result;
+        return true;
+    }
+
+    /**
+     * Número decimal con signo, punto y exponente opcionales (por ejemplo -12, 3.5, .5, 1e-3),
+     * o NaN / Infinity. El valor es el mismo que daría Double.parseDouble.
+     */
+    public boolean tryParseDouble(CharSequence s, int start, int end) {
+        if (!trim(s, start, end)) return false;
+        int i = from;
+        boolean negative = false;
+        char first = s.charAt(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (++i == to) return false;
+        }
+        if (matches(s, i, "NaN")) {
+            doubleValue = Double.NaN;
+            return true;
+        }
+        if (matches(s, i, "Infinity")) {
+            doubleValue = negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+            return true;
+        }
+
+        long mantissa = 0;
+        int significant = 0;   // dígitos que entraron en la mantisa
+        int digits = 0;        // dígitos totales, antes y después del punto
+        int scale = 0;         // exponente decimal implícito por el punto y los dígitos descartados
+        boolean exact = true;
+        for (boolean dot = false; i < to; i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits++;
+                if (significant < MAX_EXACT_DIGITS) {
+                    if (mantissa != 0 || c != '0') significant++;
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (dot) scale--;
+                } else {
+                    if (c != '0') exact = false;
+                    if (!dot) scale++;
+                }
+            } else if (c == '.' && !dot) {
+                dot = true;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) return false;
+
+        if (i < to) {
+            char e = s.charAt(i);
+            if (e != 'e' && e != 'E') return false;
+            if (++i == to) return false;
+            boolean negativeExp = false;
+            char sign = s.charAt(i);
+            if (sign == '-' || sign == '+') {
+                negativeExp = sign == '-';
+                if (++i == to) return false;
+            }
+            int exponent = 0;
+            for (; i < to; i++) {
+                int digit = s.charAt(i) - '0';
+                if (digit < 0 || digit > 9) return false;
+                // Exponentes enormes ya dan 0 o infinito; se evita el desborde del int
+                if (exponent < 100000) exponent = exponent * 10 + digit;
+            }
+            scale += negativeExp ? -exponent : exponent;
+        }
+
+        if (exact && mantissa == 0) {
+            doubleValue = negative ? -0.0 : 0.0;
+        } else if (exact && scale >= -22 && scale <= 22) {
+            // Camino rápido: mantisa exacta por (o dividida por) una potencia de 10 exacta
+            double value = scale >= 0 ? mantissa * POWERS_OF_TEN[scale] : mantissa / POWERS_OF_TEN[-scale];
+            doubleValue = negative ? -value : value;
+        } else {
+            // Demasiados dígitos o exponente grande: el texto ya es válido, Double lo redondea bien
+            doubleValue = Double.parseDouble(s.subSequence(from, to).toString());
+        }
+        return true;
+    }
+
+    /**
+     * "true" o "false", sin distinguir mayúsculas.
+     */
+    public boolean tryParseBoolean(CharSequence s, int start, int end) {
+        if (!trim(s, start, end)) return false;
+        if (to - from == 4 && matchesIgnoreCase(s, from, "true")) {
+            booleanValue = true;
+            return true;
+        }
+        if (to - from == 5 && matchesIgnoreCase(s, from, "false")) {
+            booleanValue = false;
+            return true;
+        }
+        return false;
+    }
+
+    // Deja en [from, to) el rango sin espacios; false si queda vacío
+    private boolean trim(CharSequence s, int start, int end) {
+        while (start < end && s.charAt(start) <= ' ') start++;
+        while (end > start && s.charAt(end - 1) <= ' ') end--;
+        from = start;
+        to = end;
+        return start < end;
+    }
+
+    // true si el resto del rango desde i es exactamente word
+    private boolean matches(CharSequence s, int i, String word) {
+        if (to - i != word.length()) return false;
+        for (int k = 0; k < word.length(); k++) {
+            if (s.charAt(i + k) != word.charAt(k)) return false;
+        }
+        return true;
+    }
+
+    private static boolean matchesIgnoreCase(CharSequence s, int i, String word) {
+        for (int k = 0; k < word.length(); k++) {
+            if (Character.toLowerCase(s.charAt(i + k)) != word.charAt(k)) return false;
+        }
+        return true;
+    }
+}
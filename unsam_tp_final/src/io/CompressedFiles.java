@@ -0,0 +1,74 @@
+// CompressedFiles.java - clase o interfaz de io
+package io;
+
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Apertura de archivos de texto que pueden estar comprimidos con gzip.
+ * Al leer, el gzip se reconoce por los primeros bytes del archivo (no por la extensión)
+ * y se descomprime en otro hilo mientras el lector parsea. Al escribir, se comprime
+ * si el nombre termina en ".gz".
+ */
+final class CompressedFiles {
+    private static final int GZIP_MAGIC = 0x8b1f;
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private CompressedFiles() { }
+
+    /**
+     * true si el archivo empieza con la firma de gzip.
+     */
+    static boolean isGzip(String filePath) throws IOException {
+        try (InputStream in = new FileInputStream(filePath)) {
+            int b0 = in.read();
+            int b1 = in.read();
+            return b0 >= 0 && b1 >= 0 && (b0 | (b1 << 8)) == GZIP_MAGIC;
+        }
+    }
+
+    /**
+     * Abre el archivo para leer sus bytes ya descomprimidos.
+     */
+    static InputStream openInput(String filePath) throws IOException {
+        if (!isGzip(filePath)) {
+            return new FileInputStream(filePath);
+        }
+        InputStream file = new FileInputStream(filePath);
+        try {
+            InputStream gzip = new GZIPInputStream(file, BUFFER_BYTES);
+            return new ReadAheadInputStream(gzip, BUFFER_BYTES, "gunzip " + filePath);
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Abre el archivo para escribir texto con el charset por defecto, igual que FileWriter;
+     * si el nombre termina en ".gz" la salida se comprime con gzip.
+     */
+    static BufferedWriter openWriter(String filePath) throws IOException {
+        if (!filePath.toLowerCase(Locale.ROOT).endsWith(".gz")) {
+            return new BufferedWriter(new FileWriter(filePath));
+        }
+        OutputStream file = new FileOutputStream(filePath);
+        try {
+            OutputStream gzip = new GZIPOutputStream(file, BUFFER_BYTES);
+            return new BufferedWriter(new OutputStreamWriter(gzip, Charset.defaultCharset()));
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+}
@@ -1,26 +1,280 @@
 // CsvReader.java
 package io;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
-import java.util.regex.Pattern;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import Principal.filter.Filter;
 import Principal.table.Column;
 import Principal.table.DataTable;
 import Principal.table.Row;
-import utils.validation.NA;
+import Principal.table.storage.ColumnBuilder;
+import Principal.table.storage.ColumnVector;
+import utils.concurrent.SharedPools;
 import utils.enums.DataType;
+import utils.enums.ParseLogLevel;
+import utils.validation.NA;
 import io.interfaces.TableReader;
 
 /**
  * CsvReader que implementa TableReader y devuelve un DataTable completo.
+ * Lee el archivo en una sola pasada: infiere los tipos con las primeras filas (la muestra)
+ * o usa el esquema recibido, y después parsea cada registro directo a los builders tipados.
+ * Los registros se separan con CsvTokenizer (RFC 4180: campos entre comillas con
+ * delimitadores, comillas escapadas o saltos de línea adentro, y finales CRLF).
+ * Si una fila posterior a la muestra no entra en el tipo inferido, la columna se ensancha
+ * (INTEGER a DOUBLE, o cualquier tipo a STRING) conservando los valores ya leídos.
+ * Con parallelism mayor a 1, los archivos grandes se mapean en memoria y se parsean
+ * por bloques de líneas en un ForkJoinPool compartido (SharedPools); el resultado es el
+ * mismo que en secuencial.
+ * Se puede pedir un subconjunto de columnas: los campos que no se piden se saltean en el
+ * tokenizer, sin copiarlos, inferirlos, parsearlos ni guardarlos.
+ * readBatches y stream recorren el archivo por lotes o por filas sin cargarlo entero.
+ * Los archivos comprimidos con gzip se leen directamente: se descomprimen en otro hilo
+ * mientras se parsea (siempre en forma secuencial, porque no se pueden partir en bloques).
+ * Si se conocen los tipos se puede pasar el esquema y no se infiere nada. Con persistSchema,
+ * los tipos finales de cada lectura completa se guardan en "archivo.csv.schema" y las
+ * lecturas siguientes los usan en lugar de clasificar la muestra.
+ * Las celdas que no entran en un tipo fijo se cuentan en un ParseDiagnostics (ver
+ * getLastDiagnostics) y se informan al final de la lectura según el ParseLogLevel.
  */
 public class CsvReader implements TableReader {
+    // Filas que se usan por defecto para inferir tipos
+    public static final int DEFAULT_SAMPLE_ROWS = 1000;
+    // Una columna STRING se codifica por diccionario si sus valores distintos
+    // no superan esta fracción de las celdas con dato...
+    private static final double CATEGORICAL_MAX_RATIO = 0.5;
+    // ...ni esta cantidad absoluta (más allá se deja de contar)
+    private static final int CATEGORICAL_MAX_DISTINCT = 1 << 16;
+    // Por debajo de este tamaño no compensa repartir la lectura entre hilos
+    private static final long PARALLEL_MIN_BYTES = 1L << 20;
+    // Tamaño máximo de un bloque: cada tarea copia su bloque a un byte[]
+    private static final long MAX_CHUNK_BYTES = 64L << 20;
+
+    // Filas por lote cuando se recorre el CSV como stream de filas
+    private static final int STREAM_BATCH_ROWS = 1024;
+    // Extensión del archivo donde se guarda el esquema inferido, junto al CSV
+    public static final String SCHEMA_SUFFIX = ".schema";
+
+    private final int sampleRows;
+    private final int parallelism;
+    private final boolean persistSchema;
+    private final ParseLogLevel logLevel;
+    private final int maxExamples;
+    // Diagnóstico de la última lectura empezada con este lector
+    private volatile ParseDiagnostics lastDiagnostics;
+
+    public CsvReader() {
+        this(DEFAULT_SAMPLE_ROWS);
+    }
+
+    /**
+     * @param sampleRows Cantidad de filas iniciales que se usan para inferir tipos
+     * @throws IllegalArgumentException si sampleRows no es positivo
+     */
+    public CsvReader(int sampleRows) {
+        this(sampleRows, 1);
+    }
+
+    /**
+     * @param sampleRows Cantidad de filas iniciales que se usan para inferir tipos
+     * @param parallelism Hilos para parsear archivos grandes (1 = lectura secuencial)
+     * @throws IllegalArgumentException si sampleRows o parallelism no son positivos
+     */
+    public CsvReader(int sampleRows, int parallelism) {
+        this(sampleRows, parallelism, false);
+    }
+
+    /**
+     * @param sampleRows    Cantidad de filas iniciales que se usan para inferir tipos
+     * @param parallelism   Hilos para parsear archivos grandes (1 = lectura secuencial)
+     * @param persistSchema Si se guardan los tipos inferidos junto al CSV para reusarlos en
+     *                      las lecturas siguientes (las columnas igual se ensanchan si hace falta)
+     * @throws IllegalArgumentException si sampleRows o parallelism no son positivos
+     */
+    public CsvReader(int sampleRows, int parallelism, boolean persistSchema) {
+        this(sampleRows, parallelism, persistSchema, ParseLogLevel.SUMMARY, ParseDiagnostics.DEFAULT_MAX_EXAMPLES);
+    }
+
+    /**
+     * @param logLevel    Qué se escribe en System.err sobre las celdas que no se pudieron parsear,
+     *                    una vez terminada la lectura
+     * @param maxExamples Celdas fallidas que se guardan como ejemplo por columna
+     * @throws IllegalArgumentException si sampleRows o parallelism no son positivos, o maxExamples es negativo
+     */
+    public CsvReader(int sampleRows, int parallelism, boolean persistSchema,
+                     ParseLogLevel logLevel, int maxExamples) {
+        if (sampleRows <= 0) {
+            throw new IllegalArgumentException("sampleRows debe ser positivo");
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism debe ser positivo");
+        }
+        if (maxExamples < 0) {
+            throw new IllegalArgumentException("maxExamples no puede ser negativo");
+        }
+        this.sampleRows = sampleRows;
+        this.parallelism = parallelism;
+        this.persistSchema = persistSchema;
+        this.logLevel = Objects.requireNonNull(logLevel, "logLevel no puede ser null");
+        this.maxExamples = maxExamples;
+    }
+
+    /**
+     * Celdas que no se pudieron parsear en la última lectura de este lector (para un stream,
+     * se va completando mientras se recorre). null si todavía no leyó nada.
+     */
+    public ParseDiagnostics getLastDiagnostics() {
+        return lastDiagnostics;
+    }
+
+    /**
+     * Lector que usa todos los procesadores disponibles para archivos grandes.
+     */
+    public static CsvReader parallel() {
+        return new CsvReader(DEFAULT_SAMPLE_ROWS, Runtime.getRuntime().availableProcessors());
+    }
 
     @Override
     public DataTable read(String filePath, String delimiter) throws IOException {
+        return read(filePath, delimiter, persistedTypes(filePath), null, null);
+    }
+
+    @Override
+    public DataTable read(String filePath, String delimiter, Collection<String> columnNames) throws IOException {
+        Objects.requireNonNull(columnNames, "columnNames no puede ser null");
+        return read(filePath, delimiter, persistedTypes(filePath), headers -> selectFields(headers, columnNames), null);
+    }
+
+    @Override
+    public DataTable read(String filePath, String delimiter, Predicate<String> columnFilter) throws IOException {
+        Objects.requireNonNull(columnFilter, "columnFilter no puede ser null");
+        return read(filePath, delimiter, persistedTypes(filePath), headers -> selectFields(headers, columnFilter), null);
+    }
+
+    /**
+     * Lee solo las filas que cumplen el filtro, con el mismo resultado que read(...).filter(filter)
+     * pero sin guardar las filas descartadas: de cada registro se parsean primero las columnas
+     * que usa el filtro y el resto solo si la fila pasa. Las filas conservan como ID su
+     * número de registro en el archivo (0 = primera fila de datos).
+     * Los tipos de las columnas salen de la muestra y de las filas que pasan el filtro.
+     * Si una columna del filtro tiene que pasar a STRING después de haber juzgado filas con un
+     * tipo más angosto, el archivo se vuelve a leer con los tipos finales de esas columnas.
+     * @param columnNames Columnas a leer, en ese orden, o null para leerlas todas
+     * @throws IllegalArgumentException si el filtro o columnNames usan una columna que no existe
+     */
+    public DataTable read(String filePath, String delimiter, Collection<String> columnNames,
+                          Filter filter) throws IOException {
+        Objects.requireNonNull(filter, "filter no puede ser null");
+        return read(filePath, delimiter, persistedTypes(filePath),
+                columnNames == null ? null : headers -> selectFields(headers, columnNames), filter);
+    }
+
+    /**
+     * Lee el CSV en lotes de a lo sumo batchSize filas, a medida que el stream los pide, sin
+     * cargar el archivo entero: en memoria están solo la muestra y el lote actual.
+     * Cada lote es una DataTable cuyos IDs son los números de registro en el archivo, así que
+     * se puede filtrar, escribir con CsvWriter o concatenar. Si una celda posterior a la
+     * muestra no entra en el tipo inferido, la columna se ensancha desde ese lote en adelante;
+     * el filtro también juzga cada fila con el tipo que la columna tiene en ese momento.
+     * Cortar el stream (limit, findFirst, ...) deja de leer el archivo; el stream tiene que
+     * cerrarse (try-with-resources) para liberar el archivo si no se recorre hasta el final.
+     * Siempre lee en forma secuencial.
+     * @param columnNames Columnas a leer, en ese orden, o null para leerlas todas
+     * @param filter      Filas a conservar, o null para conservarlas todas
+     * @throws IllegalArgumentException si batchSize no es positivo o alguna columna no existe
+     */
+    public Stream<DataTable> readBatches(String filePath, String delimiter, int batchSize,
+                                         Collection<String> columnNames, Filter filter) throws IOException {
+        if (filePath == null || filePath.isEmpty()) {
+            throw new IllegalArgumentException("El path no puede ser nulo o vacío");
+        }
+        if (delimiter == null || delimiter.isEmpty()) {
+            throw new IllegalArgumentException("El delimitador no puede ser nulo o vacío");
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize debe ser positivo");
+        }
+        RecordCursor cursor = new RecordCursor(filePath, delimiter, persistedTypes(filePath),
+                columnNames == null ? null : headers -> selectFields(headers, columnNames), filter);
+        Spliterator<DataTable> batches = Spliterators.spliteratorUnknownSize(
+                new BatchIterator(cursor, batchSize), Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(batches, false).onClose(() -> {
+            try {
+                cursor.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    public Stream<DataTable> readBatches(String filePath, String delimiter, int batchSize) throws IOException {
+        return readBatches(filePath, delimiter, batchSize, null, null);
+    }
+
+    /**
+     * Filas del CSV a medida que se piden (ver readBatches). Cada fila pertenece a su lote:
+     * getIndex() es el número de registro y getValue(...) devuelve los valores tipados.
+     */
+    public Stream<Row> stream(String filePath, String delimiter, Collection<String> columnNames,
+                              Filter filter) throws IOException {
+        return readBatches(filePath, delimiter, STREAM_BATCH_ROWS, columnNames, filter)
+                .flatMap(batch -> batch.getRows().values().stream());
+    }
+
+    public Stream<Row> stream(String filePath, String delimiter) throws IOException {
+        return stream(filePath, delimiter, null, null);
+    }
+
+    /**
+     * Lee el CSV con los tipos de columna indicados, sin clasificar ninguna celda.
+     * Las etiquetas de la tabla son las del esquema. Las celdas que no se pueden parsear al
+     * tipo indicado quedan como NA.
+     * @param schema Una columna por campo del encabezado, en el mismo orden
+     * @throws IllegalArgumentException si el esquema no tiene tantas columnas como el encabezado
+     */
+    @Override
+    public DataTable read(String filePath, String delimiter, List<Column> schema) throws IOException {
+        Objects.requireNonNull(schema, "schema no puede ser null");
+        return read(filePath, delimiter, KnownTypes.of(schema), null, null);
+    }
+
+    /**
+     * Lee el CSV con el tipo indicado para cada columna nombrada; las columnas que no están
+     * en el mapa se infieren. Las celdas que no se pueden parsear al tipo indicado quedan como NA.
+     * @throws IllegalArgumentException si el mapa nombra una columna que no está en el encabezado
+     */
+    @Override
+    public DataTable read(String filePath, String delimiter, Map<String, DataType> schema) throws IOException {
+        Objects.requireNonNull(schema, "schema no puede ser null");
+        return read(filePath, delimiter, KnownTypes.of(schema), null, null);
+    }
+
+    /**
+     * @param known      Tipos conocidos de antemano, o null para inferirlos todos
+     * @param projection Recibe el encabezado (sin espacios) y devuelve los índices de los campos
+     *                   a leer, en el orden de las columnas del resultado; null para leer todos
+     * @param filter     Filas a conservar, o null para conservarlas todas
+     */
+    private DataTable read(String filePath, String delimiter, KnownTypes known,
+                           Function<String[], int[]> projection, Filter filter) throws IOException {
         // 1) Validar parámetros de entrada
         if (filePath == null || filePath.isEmpty()) {
             throw new IllegalArgumentException("El path no puede ser nulo o vacío");
@@ -28,173 +282,1032 @@ public class CsvReader implements TableReader {
         if (delimiter == null || delimiter.isEmpty()) {
             throw new IllegalArgumentException("El delimitador no puede ser nulo o vacío");
         }
+        if (parallelism > 1 && Files.size(Paths.get(filePath)) >= PARALLEL_MIN_BYTES
+                && !CompressedFiles.isGzip(filePath)) {
+            return persist(filePath, known, projection, filter,
+                    readParallel(filePath, delimiter, known, projection, filter));
+        }
+
+        // 2) Encabezado y muestra; después cada registro se parsea directo a los builders
+        try (RecordCursor cursor = new RecordCursor(filePath, delimiter, known, projection, filter)) {
+            ColumnBuilder[] builders = cursor.newBuilders(cursor.sampleSize());
+            RowIdList rowIds = filter == null ? null : new RowIdList();
+            while (cursor.appendNext(builders)) {
+                if (rowIds != null) {
+                    rowIds.add(cursor.record());
+                }
+            }
+            // 3) Si el filtro juzgó filas con un tipo que después pasó a STRING, se descarta
+            //    lo leído y se vuelve a leer con los tipos finales de las columnas del filtro
+            Map<String, DataType> filterTypes = KnownTypes.isSettled(known) || cursor.rows == null
+                    ? null : RowFilter.retypedColumns(List.of(cursor.rows));
+            if (filterTypes == null) {
+                // 4) DataTable con los tipos finales; con filtro, los IDs son los números de registro
+                return persist(filePath, known, projection, filter,
+                        cursor.build(builders, rowIds == null ? null : rowIds.toArray()));
+            }
+            cursor.discard();
+            known = KnownTypes.settled(known, filterTypes);
+        }
+        return read(filePath, delimiter, known, projection, filter);
+    }
+
+    // Esquema guardado junto al CSV, como pista de tipos; null si no se persiste o no hay
+    private KnownTypes persistedTypes(String filePath) {
+        if (!persistSchema || filePath == null || filePath.isEmpty()) {
+            return null;
+        }
+        List<Column> columns = SchemaFile.read(filePath + SCHEMA_SUFFIX);
+        return columns == null ? null : KnownTypes.hint(columns);
+    }
+
+    /**
+     * Guarda los tipos finales junto al CSV si la lectura fue completa (sin proyección ni
+     * filtro, que darían un esquema parcial) y los tipos no los fijó el usuario.
+     */
+    private DataTable persist(String filePath, KnownTypes known, Function<String[], int[]> projection,
+                              Filter filter, DataTable table) throws IOException {
+        if (persistSchema && projection == null && filter == null && (known == null || !known.strict)) {
+            SchemaFile.write(filePath + SCHEMA_SUFFIX, table.getColumns());
+        }
+        return table;
+    }
 
-        List<String[]> rawRows = new ArrayList<>();  // Almacena filas crudas (sin procesar)
-        String[] headers;                            // Contendrá los nombres de columna
+    /**
+     * Lectura en paralelo: el encabezado y la muestra se leen del comienzo del archivo;
+     * el resto se parte en bloques que terminan en un fin de línea fuera de comillas,
+     * cada bloque se parsea en su propia tarea y al final se unen los builders en orden.
+     */
+    private DataTable readParallel(String filePath, String delimiter, KnownTypes known,
+                                   Function<String[], int[]> projection, Filter filter) throws IOException {
+        // invokeAll espera todas las tareas, así que en el pool compartido no queda nada corriendo
+        ForkJoinPool pool = SharedPools.get(parallelism);
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            long fileSize = channel.size();
 
-        // 2) Primera pasada: leer encabezado e inferir tipos de columna
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line = reader.readLine();
-            if (line == null) {
-                // CSV vacío o sin encabezado
+            // 1) Encabezado y muestra, desde el comienzo del archivo
+            byte[] head = readBytes(channel, 0, Math.min(fileSize, MAX_CHUNK_BYTES));
+            boolean complete = head.length == fileSize;
+            CsvTokenizer tokenizer = new CsvTokenizer(head, 0, head.length, delimiter, Charset.defaultCharset());
+            if (!tokenizer.next()) {
                 throw new IOException("El CSV no puede estar vacío o no tener encabezado");
             }
-            // Separar nombres de columna usando el delimitador (escapeado con Pattern.quote)
-            headers = line.split(Pattern.quote(delimiter), -1);
+            ScanPlan plan = new ScanPlan(tokenizer.fieldStrings(), known, projection, filter);
+            tokenizer.keepFields(plan.keep);
+            long dataStart = tokenizer.position();
 
-            // Inicializar lista de DataType (todos en null, para inferir más adelante)
-            List<DataType> inferredTypes = new ArrayList<>(headers.length);
-            for (int i = 0; i < headers.length; i++) {
-                inferredTypes.add(null);
+            TypeInference inference = new TypeInference(plan.declared, new CellParser());
+            FieldProjection row = new FieldProjection(plan.scan);
+            for (int rows = 0; rows < sampleRows && tokenizer.next(); rows++) {
+                if (!complete && tokenizer.position() >= head.length) {
+                    // El último registro de la ventana puede estar cortado
+                    break;
+                }
+                inference.observe(row.of(tokenizer.fields()));
             }
+            DataType[] scanTypes = inference.types();
+            DataType[] types = Arrays.copyOf(scanTypes, plan.labels.length);
+            boolean[] widen = plan.widen;
 
-            // Recorrer cada línea restante para inferir tipos de columna
-            while ((line = reader.readLine()) != null) {
-                String[] values = line.split(Pattern.quote(delimiter), -1);
-                rawRows.add(values);  // Guardar fila cruda para procesar después
-
-                for (int i = 0; i < headers.length; i++) {
-                    if (i >= values.length) {
-                        // Esta fila es más corta que el encabezado; no hay valor en esta columna
-                        continue;
-                    }
-                    String celda = values[i].trim();
-                    if (celda.isEmpty()) {
-                        // Celda vacía ("" o "   ") → NA, no influye en la inferencia de tipo
-                        continue;
-                    }
+            // 2) Bloques alineados a fin de línea, parseados cada uno en una tarea
+            long[] bounds = chunkBounds(channel, pool, dataStart, fileSize);
+            List<Callable<ChunkResult>> tasks = new ArrayList<>();
+            for (int c = 0; c + 1 < bounds.length; c++) {
+                long start = bounds[c];
+                long end = bounds[c + 1];
+                if (start < end) {
+                    tasks.add(() -> parseChunk(channel, start, end, delimiter, plan, inference,
+                            types.clone(), filter == null ? null : new RowFilter(filter, plan, scanTypes),
+                            widen));
+                }
+            }
+            List<ChunkResult> chunks = new ArrayList<>(tasks.size());
+            List<RowFilter> filters = new ArrayList<>(tasks.size());
+            for (Future<ChunkResult> future : pool.invokeAll(tasks)) {
+                ChunkResult chunk = getResult(future);
+                chunks.add(chunk);
+                if (chunk.filter != null) {
+                    filters.add(chunk.filter);
+                }
+            }
+            // Cada bloque juzgó sus filas con los tipos de la muestra: si una columna del
+            // filtro pasó a STRING en algún bloque, se vuelve a leer con los tipos finales
+            Map<String, DataType> filterTypes = KnownTypes.isSettled(known) || filters.isEmpty()
+                    ? null : RowFilter.retypedColumns(filters);
+            if (filterTypes != null) {
+                return read(filePath, delimiter, KnownTypes.settled(known, filterTypes), projection, filter);
+            }
 
-                    // Determinar tipo de la celda: INTEGER, DOUBLE, BOOLEAN o STRING
-                    DataType celdaTipo;
-                    try {
-                        Integer.parseInt(celda);
-                        celdaTipo = DataType.INTEGER;
-                    } catch (NumberFormatException e1) {
-                        try {
-                            Double.parseDouble(celda);
-                            celdaTipo = DataType.DOUBLE;
-                        } catch (NumberFormatException e2) {
-                            if (celda.equalsIgnoreCase("true") || celda.equalsIgnoreCase("false")) {
-                                celdaTipo = DataType.BOOLEAN;
-                            } else {
-                                celdaTipo = DataType.STRING;
-                            }
-                        }
-                    }
+            // 3) Tipo final por columna: el más ancho entre los bloques
+            int total = 0;
+            for (ChunkResult chunk : chunks) {
+                total += chunk.rows;
+                for (int i = 0; i < types.length; i++) {
+                    if (widen[i]) types[i] = mergeTypes(types[i], chunk.types[i]);
+                }
+            }
 
-                    // Obtener el tipo previamente inferido para esta columna (puede ser null)
-                    DataType celdatipoprev = inferredTypes.get(i);
-                    if (celdatipoprev == null) {
-                        // Si aún no se había asignado, usar el tipo recién detectado
-                        inferredTypes.set(i, celdaTipo);
-                    } else if (celdatipoprev == celdaTipo) {
-                        // Si coincide con el tipo anterior, no hacemos nada
-                    } else if (celdatipoprev == DataType.STRING || celdaTipo == DataType.STRING) {
-                        // Si alguno es STRING, la columna definitiva es STRING
-                        inferredTypes.set(i, DataType.STRING);
-                    } else if ((celdatipoprev == DataType.DOUBLE && celdaTipo == DataType.INTEGER)
-                            || (celdatipoprev == DataType.INTEGER && celdaTipo == DataType.DOUBLE)) {
-                        // Mezcla INTEGER y DOUBLE → promover a DOUBLE
-                        inferredTypes.set(i, DataType.DOUBLE);
-                    } else {
-                        // Cualquier otra combinación → forzar STRING
-                        inferredTypes.set(i, DataType.STRING);
+            // 4) Unir los builders de los bloques, en el orden del archivo. Con filtro, los
+            //    números de registro de cada bloque se corren por los registros anteriores.
+            ColumnBuilder[] builders = newBuilders(inference, types, total, null);
+            int[] rowIds = filter == null ? null : new int[total];
+            ParseDiagnostics diagnostics = new ParseDiagnostics(Arrays.asList(plan.labels), maxExamples);
+            int appended = 0;
+            int recordsBefore = 0;
+            for (ChunkResult chunk : chunks) {
+                diagnostics.merge(chunk.diagnostics, recordsBefore);
+                for (int i = 0; i < builders.length; i++) {
+                    builders[i].appendAll(chunk.builders[i].widen(types[i]).build());
+                }
+                if (rowIds != null) {
+                    for (int r = 0; r < chunk.rows; r++) {
+                        rowIds[appended + r] = recordsBefore + chunk.rowIds[r];
                     }
                 }
+                appended += chunk.rows;
+                recordsBefore += chunk.records;
             }
+            DataTable table = buildTable(plan.labels, types, builders, rowIds);
+            lastDiagnostics = diagnostics;
+            diagnostics.report(logLevel, System.err);
+            return table;
+        }
+    }
+
+    private ChunkResult parseChunk(FileChannel channel, long start, long end, String delimiter, ScanPlan plan,
+                                   TypeInference inference, DataType[] types, RowFilter rows,
+                                   boolean[] widen) throws IOException {
+        byte[] bytes = readBytes(channel, start, end - start);
+        CsvTokenizer tokenizer = new CsvTokenizer(bytes, 0, bytes.length, delimiter, Charset.defaultCharset());
+        tokenizer.keepFields(plan.keep);
+        CellParser parser = new CellParser();
+        FieldProjection row = new FieldProjection(plan.scan);
+        ColumnBuilder[] builders = newBuilders(inference, types, 1024, widen);
+        RowIdList rowIds = new RowIdList();
+        ParseDiagnostics diagnostics = new ParseDiagnostics(Arrays.asList(plan.labels), maxExamples);
+        int records = 0;
+        while (tokenizer.next()) {
+            List<CharSequence> values = row.of(tokenizer.fields());
+            if (rows == null || rows.accept(records, values)) {
+                appendRow(parser, builders, types, values, widen, inference, diagnostics, records);
+                rowIds.add(records);
+            }
+            records++;
+        }
+        return new ChunkResult(builders, types, rowIds.size(), records,
+                rows == null ? null : rowIds.toArray(), rows, diagnostics);
+    }
+
+    /**
+     * Límites de los bloques a parsear. Se parte [dataStart, fileSize) en partes iguales
+     * y cada corte se corre al siguiente fin de línea que no esté dentro de un campo entre
+     * comillas (se asume un CSV con las comillas bien formadas). Para saber si un corte cae dentro de comillas se cuentan en paralelo las
+     * comillas de cada parte: la paridad acumulada dice si hay un campo abierto.
+     */
+    private long[] chunkBounds(FileChannel channel, ForkJoinPool pool, long dataStart, long fileSize)
+            throws IOException {
+        long length = fileSize - dataStart;
+        int parts = (int) Math.max(parallelism * 4L, (length + MAX_CHUNK_BYTES - 1) / MAX_CHUNK_BYTES);
+        long[] raw = new long[parts + 1];
+        for (int c = 0; c <= parts; c++) {
+            raw[c] = dataStart + length * c / parts;
+        }
+
+        List<Callable<Long>> counts = new ArrayList<>(parts);
+        for (int c = 0; c < parts; c++) {
+            long start = raw[c];
+            long end = raw[c + 1];
+            counts.add(() -> countQuotes(channel, start, end));
+        }
+        List<Future<Long>> quoteCounts = pool.invokeAll(counts);
+
+        long[] bounds = new long[parts + 1];
+        bounds[0] = dataStart;
+        bounds[parts] = fileSize;
+        long quotesBefore = 0;
+        for (int c = 1; c < parts; c++) {
+            quotesBefore += getResult(quoteCounts.get(c - 1));
+            long aligned = Math.max(raw[c], bounds[c - 1]);
+            bounds[c] = aligned == raw[c]
+                    ? nextLineStart(channel, raw[c], fileSize, quotesBefore % 2 == 1)
+                    : aligned;
+        }
+        return bounds;
+    }
 
-            // 3) Rellenar con STRING donde el tipo siga siendo null (columnas completamente vacías)
-            for (int i = 0; i < inferredTypes.size(); i++) {
-                if (inferredTypes.get(i) == null) {
-                    inferredTypes.set(i, DataType.STRING);
+    private static long countQuotes(FileChannel channel, long start, long end) throws IOException {
+        long quotes = 0;
+        for (long offset = start; offset < end; offset += MAX_CHUNK_BYTES) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset,
+                    Math.min(MAX_CHUNK_BYTES, end - offset));
+            while (buffer.hasRemaining()) {
+                if (buffer.get() == '"') quotes++;
+            }
+        }
+        return quotes;
+    }
+
+    // Posición siguiente al primer '\n' desde from que no está dentro de comillas, o fileSize
+    private static long nextLineStart(FileChannel channel, long from, long fileSize, boolean inQuotes)
+            throws IOException {
+        for (long offset = from; offset < fileSize; offset += MAX_CHUNK_BYTES) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset,
+                    Math.min(MAX_CHUNK_BYTES, fileSize - offset));
+            while (buffer.hasRemaining()) {
+                byte b = buffer.get();
+                if (b == '"') {
+                    inQuotes = !inQuotes;
+                } else if (b == '\n' && !inQuotes) {
+                    return offset + buffer.position();
                 }
             }
+        }
+        return fileSize;
+    }
+
+    private static byte[] readBytes(FileChannel channel, long start, long length) throws IOException {
+        byte[] bytes = new byte[(int) length];
+        channel.map(FileChannel.MapMode.READ_ONLY, start, length).get(bytes);
+        return bytes;
+    }
+
+    private static <T> T getResult(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Lectura interrumpida", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    private static int[] allFields(int count) {
+        int[] fields = new int[count];
+        for (int i = 0; i < count; i++) {
+            fields[i] = i;
+        }
+        return fields;
+    }
+
+    private static int[] selectFields(String[] headers, Collection<String> columnNames) {
+        Map<String, Integer> ordinals = new HashMap<>();
+        for (int i = 0; i < headers.length; i++) {
+            ordinals.putIfAbsent(headers[i], i);
+        }
+        int[] fields = new int[columnNames.size()];
+        int k = 0;
+        for (String name : columnNames) {
+            Integer ordinal = ordinals.get(name);
+            if (ordinal == null) {
+                throw new IllegalArgumentException("La columna '" + name + "' no existe.");
+            }
+            fields[k++] = ordinal;
+        }
+        return fields;
+    }
+
+    private static int[] selectFields(String[] headers, Predicate<String> columnFilter) {
+        int[] fields = new int[headers.length];
+        int k = 0;
+        for (int i = 0; i < headers.length; i++) {
+            if (columnFilter.test(headers[i])) {
+                fields[k++] = i;
+            }
+        }
+        return Arrays.copyOf(fields, k);
+    }
+
+    private static List<String> projectedStrings(CsvTokenizer tokenizer, int[] fields) {
+        String[] values = new String[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i] < tokenizer.fieldCount()) {
+                values[i] = tokenizer.fieldString(fields[i]);
+            }
+        }
+        return Arrays.asList(values);
+    }
+
+    /**
+     * @param widen Columnas que todavía se pueden ensanchar: guardan el texto original de las
+     *              celdas para no perderlo si pasan a STRING; null si los tipos ya son finales
+     */
+    private static ColumnBuilder[] newBuilders(TypeInference inference, DataType[] types, int expectedSize,
+                                               boolean[] widen) {
+        ColumnBuilder[] builders = new ColumnBuilder[types.length];
+        for (int i = 0; i < types.length; i++) {
+            builders[i] = inference.isCategorical(i, types[i])
+                    ? ColumnBuilder.categorical(expectedSize)
+                    : new ColumnBuilder(types[i], expectedSize);
+            if (widen != null && widen[i]) {
+                builders[i].trackText();
+            }
+        }
+        return builders;
+    }
+
+    private static DataTable buildTable(String[] labels, DataType[] types, ColumnBuilder[] builders,
+                                        int[] rowIds) {
+        List<Column> columnList = new ArrayList<>(labels.length);
+        List<ColumnVector> vectors = new ArrayList<>(labels.length);
+        for (int i = 0; i < labels.length; i++) {
+            columnList.add(new Column(labels[i], types[i]));
+            vectors.add(builders[i].build());
+        }
+        return new DataTable(columnList, vectors, rowIds);
+    }
+
+    /**
+     * Agrega una fila (ya proyectada) a los builders. Los campos null, que faltaban en una
+     * fila más corta que el encabezado, quedan como NA. Las celdas que no entran en un tipo
+     * fijo también quedan como NA y se anotan en diagnostics con el número de registro.
+     */
+    private void appendRow(CellParser parser, ColumnBuilder[] builders, DataType[] types,
+                           List<? extends CharSequence> values, boolean[] widen, TypeInference inference,
+                           ParseDiagnostics diagnostics, int record) {
+        for (int i = 0; i < builders.length; i++) {
+            CharSequence raw = values.get(i);
+            if (parseInto(parser, builders[i], raw, types[i])) {
+                continue;
+            }
+            if (widen[i]) {
+                // La fila contradice el tipo inferido con la muestra: ensanchar la columna.
+                // Si pasa a STRING se codifica por diccionario igual que al crear los builders
+                // (y que al unir los bloques de la lectura en paralelo)
+                types[i] = mergeTypes(types[i], parser.classify(raw));
+                builders[i].widen(types[i], inference.isCategorical(i, types[i]));
+                parseInto(parser, builders[i], raw, types[i]);
+            } else {
+                diagnostics.record(i, record, raw, types[i]);
+                builders[i].appendNA();
+            }
+        }
+    }
+
+    /**
+     * Tipo de una columna que ya tenía el tipo prev y recibe una celda de tipo celdaTipo.
+     */
+    private static DataType mergeTypes(DataType prev, DataType celdaTipo) {
+        if (prev == null || prev == celdaTipo) {
+            // Si aún no se había asignado, o coincide, usar el tipo de la celda
+            return celdaTipo;
+        }
+        if ((prev == DataType.DOUBLE && celdaTipo == DataType.INTEGER)
+                || (prev == DataType.INTEGER && celdaTipo == DataType.DOUBLE)) {
+            // Mezcla INTEGER y DOUBLE → promover a DOUBLE
+            return DataType.DOUBLE;
+        }
+        // Si alguno es STRING, o cualquier otra combinación → STRING
+        return DataType.STRING;
+    }
+
+    /**
+     * parseInto: convierte la cadena raw según DataType y la agrega al builder sin boxing
+     * ni excepciones (usa los parsers de CellParser).
+     *   - Si raw es null, vacío ("") o "   ", agrega NA.
+     *   - Si raw no se puede parsear al tipo, no agrega nada y devuelve false.
+     *   - Anota raw en el builder (noteText) por si la columna después pasa a STRING.
+     */
+    private boolean parseInto(CellParser parser, ColumnBuilder builder, CharSequence raw, DataType type) {
+        // 1) Si es null o, tras hacer trim, queda vacío → NA
+        if (parser.isBlank(raw)) {
+            builder.appendNA();
+            return true;
+        }
+
+        int end = raw.length();
+        switch (type) {
+            case INTEGER:
+                if (!parser.tryParseInt(raw, 0, end)) return false;
+                builder.appendInt(parser.intValue());
+                builder.noteText(raw);
+                return true;
+            case FLOAT:
+                if (!parser.tryParseDouble(raw, 0, end)) return false;
+                builder.appendFloat((float) parser.doubleValue());
+                builder.noteText(raw);
+                return true;
+            case DOUBLE:
+                if (!parser.tryParseDouble(raw, 0, end)) return false;
+                builder.appendDouble(parser.doubleValue());
+                builder.noteText(raw);
+                return true;
+            case BOOLEAN:
+                if (!parser.tryParseBoolean(raw, 0, end)) return false;
+                builder.appendBoolean(parser.booleanValue());
+                builder.noteText(raw);
+                return true;
+            case STRING:
+            default:
+                // Para STRING, guardar la cadena misma
+                builder.append(raw.toString().trim());
+                return true;
+        }
+    }
+
+    /**
+     * Valor de una celda no vacía con el tipo indicado, el mismo que devolvería la columna
+     * ya construida; null si raw no se puede parsear a ese tipo.
+     */
+    private static Object parseValue(CellParser parser, CharSequence raw, DataType type) {
+        int end = raw.length();
+        switch (type) {
+            case INTEGER:
+                return parser.tryParseInt(raw, 0, end) ? Integer.valueOf(parser.intValue()) : null;
+            case FLOAT:
+                return parser.tryParseDouble(raw, 0, end) ? Float.valueOf((float) parser.doubleValue()) : null;
+            case DOUBLE:
+                return parser.tryParseDouble(raw, 0, end) ? Double.valueOf(parser.doubleValue()) : null;
+            case BOOLEAN:
+                return parser.tryParseBoolean(raw, 0, end) ? Boolean.valueOf(parser.booleanValue()) : null;
+            case STRING:
+            default:
+                return raw.toString().trim();
+        }
+    }
+
+    /**
+     * Campos que se leen de cada registro: primero las columnas del resultado, en su orden,
+     * y después las que usa el filtro y no se piden en el resultado.
+     */
+    private static final class ScanPlan {
+        // Etiquetas de las columnas del resultado, que ocupan las primeras posiciones de scan
+        final String[] labels;
+        // Índice en el registro de cada campo que se lee
+        final int[] scan;
+        // Campos que el tokenizer tiene que copiar; null si se copian todos
+        final boolean[] keep;
+        // Posición en scan y etiqueta de cada columna que usa el filtro
+        final int[] filterPositions;
+        final List<String> filterLabels;
+        // Por posición de scan: tipo conocido de antemano (null = inferir) y si se puede ensanchar
+        final DataType[] declared;
+        final boolean[] widen;
 
-            // 4) Construir List<Column> y Map<String,DataType>
-            List<Column> columnList = new ArrayList<>(headers.length);
-            Map<String, DataType> columnTypesMap = new LinkedHashMap<>(headers.length);
+        ScanPlan(String[] headers, KnownTypes known, Function<String[], int[]> projection, Filter filter) {
+            String[] names = new String[headers.length];
+            for (int i = 0; i < headers.length; i++) {
+                names[i] = headers[i].trim();
+            }
+            Column[] knownColumns = known == null ? new Column[headers.length] : known.resolve(names);
+            List<String> allLabels = new ArrayList<>(headers.length);
             for (int i = 0; i < headers.length; i++) {
-                String label = headers[i].trim();
-                DataType dt = inferredTypes.get(i);
-                columnList.add(new Column(label, dt));
-                columnTypesMap.put(label, dt);
+                allLabels.add(knownColumns[i] != null ? knownColumns[i].getLabel() : names[i]);
+            }
+
+            int[] fields = projection == null ? allFields(headers.length) : projection.apply(names);
+            labels = new String[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                labels[i] = allLabels.get(fields[i]);
+            }
+
+            // Columnas del filtro: se leen aunque no estén en el resultado
+            int[] scanFields = Arrays.copyOf(fields, fields.length + headers.length);
+            int scanCount = fields.length;
+            Collection<String> filterColumns = filter == null ? List.of()
+                    : filter.referencedColumns() != null ? filter.referencedColumns()
+                    : new LinkedHashSet<>(allLabels);
+            filterPositions = new int[filterColumns.size()];
+            filterLabels = new ArrayList<>(filterColumns);
+            for (int j = 0; j < filterLabels.size(); j++) {
+                int field = allLabels.indexOf(filterLabels.get(j));
+                if (field < 0) {
+                    throw new IllegalArgumentException("Columna no encontrada: " + filterLabels.get(j));
+                }
+                int position = 0;
+                while (position < scanCount && scanFields[position] != field) position++;
+                if (position == scanCount) {
+                    scanFields[scanCount++] = field;
+                }
+                filterPositions[j] = position;
+            }
+            scan = Arrays.copyOf(scanFields, scanCount);
+            declared = new DataType[scanCount];
+            widen = new boolean[scanCount];
+            for (int i = 0; i < scanCount; i++) {
+                Column column = knownColumns[scan[i]];
+                declared[i] = column == null ? null : column.getType();
+                widen[i] = column == null || !known.strict;
             }
 
-            // 5) Construir lista de etiquetas (columnLabels) para pasar a cada Row
-            List<String> columnLabels = new ArrayList<>(headers.length);
-            for (Column col : columnList) {
-                columnLabels.add(col.getLabel());
+            boolean[] mask = new boolean[headers.length];
+            int kept = 0;
+            for (int field : scan) {
+                if (!mask[field]) {
+                    mask[field] = true;
+                    kept++;
+                }
             }
+            keep = kept == headers.length ? null : mask;
+        }
+    }
+
+    /**
+     * Decide qué registros se conservan evaluando el filtro con solo las columnas que usa.
+     * El filtro ve una fila independiente con los valores que tendría en la DataTable
+     * (NA incluido). Cada hilo usa su propia instancia, pero el filtro es el mismo: tiene que
+     * poder evaluarse desde varios hilos sobre filas independientes, como SimpleFilter y CompFilter.
+     */
+    private static final class RowFilter {
+        private final Filter filter;
+        private final int[] positions;
+        private final List<String> labels;
+        // Tipo actual de cada columna del filtro; se ensancha igual que en appendRow
+        private final DataType[] types;
+        private final boolean[] widen;
+        private final CellParser parser = new CellParser();
+        private final Object[] values;
+        private final List<Object> valueList;
+        // Alguna columna del filtro pasó a STRING: las filas anteriores se juzgaron con otro tipo
+        private boolean retyped;
+
+        RowFilter(Filter filter, ScanPlan plan, DataType[] scanTypes) {
+            this.filter = filter;
+            this.positions = plan.filterPositions;
+            this.labels = plan.filterLabels;
+            types = new DataType[positions.length];
+            widen = new boolean[positions.length];
+            for (int j = 0; j < positions.length; j++) {
+                types[j] = scanTypes[positions[j]];
+                widen[j] = plan.widen[positions[j]];
+            }
+            values = new Object[positions.length];
+            valueList = Arrays.asList(values);
+        }
 
-            // 6) Crear Map<Integer, Row> con cada rawRow ya parseada
-            Map<Integer, Row> rowMap = new LinkedHashMap<>();
-            for (int rowIdx = 0; rowIdx < rawRows.size(); rowIdx++) {
-                String[] raw = rawRows.get(rowIdx);
-                List<Object> parsedRow = new ArrayList<>(headers.length);
+        /**
+         * @param record Número de registro, que se usa como índice de la fila
+         * @param row    Campos leídos del registro, en el orden de ScanPlan.scan
+         */
+        boolean accept(int record, List<? extends CharSequence> row) {
+            for (int j = 0; j < positions.length; j++) {
+                values[j] = valueOf(j, row.get(positions[j]));
+            }
+            return filter.apply(new Row(record, valueList, labels));
+        }
+
+        private Object valueOf(int column, CharSequence raw) {
+            if (parser.isBlank(raw)) {
+                return NA.INSTANCE;
+            }
+            Object value = parseValue(parser, raw, types[column]);
+            if (value == null && widen[column]) {
+                // INTEGER → DOUBLE no cambia cómo se comparan los números; STRING sí
+                types[column] = mergeTypes(types[column], parser.classify(raw));
+                retyped |= types[column] == DataType.STRING;
+                value = parseValue(parser, raw, types[column]);
+            }
+            return value == null ? NA.INSTANCE : value;
+        }
+
+        /**
+         * Tipo final de cada columna del filtro, por etiqueta, después de que las instancias
+         * vieron todos los registros; null si ninguna columna tuvo que pasar a STRING.
+         */
+        static Map<String, DataType> retypedColumns(List<RowFilter> filters) {
+            boolean retyped = false;
+            for (RowFilter rows : filters) {
+                retyped |= rows.retyped;
+            }
+            if (!retyped) {
+                return null;
+            }
+            Map<String, DataType> types = new HashMap<>();
+            for (RowFilter rows : filters) {
+                for (int j = 0; j < rows.labels.size(); j++) {
+                    types.merge(rows.labels.get(j), rows.types[j], CsvReader::mergeTypes);
+                }
+            }
+            return types;
+        }
+    }
+
+    /**
+     * Estadísticas de la muestra por columna: tipo inferido, y valores distintos y celdas
+     * con dato para decidir la codificación por diccionario.
+     */
+    private static final class TypeInference {
+        private final DataType[] types;
+        // Tipos conocidos de antemano: esas columnas no se clasifican
+        private final DataType[] declared;
+        // El conjunto pasa a null cuando supera CATEGORICAL_MAX_DISTINCT
+        private final List<Set<String>> distinctValues;
+        private final int[] nonEmptyCounts;
+        private final CellParser parser;
+
+        /**
+         * @param declared Tipo conocido por columna, o null en las que hay que inferir
+         */
+        TypeInference(DataType[] declared, CellParser parser) {
+            this.parser = parser;
+            this.declared = declared;
+            int columns = declared.length;
+            types = new DataType[columns];
+            distinctValues = new ArrayList<>(columns);
+            nonEmptyCounts = new int[columns];
+            for (int i = 0; i < columns; i++) {
+                distinctValues.add(new HashSet<>());
+            }
+        }
+
+        void observe(List<? extends CharSequence> values) {
+            for (int i = 0; i < types.length && i < values.size(); i++) {
+                if (declared[i] != null && declared[i] != DataType.STRING) {
+                    // Tipo conocido y no es texto: no hay nada que contar
+                    continue;
+                }
+                CharSequence raw = values.get(i);
+                String celda = raw == null ? "" : raw.toString().trim();
+                if (celda.isEmpty()) {
+                    // Celda vacía ("" o "   ") → NA, no influye en la inferencia de tipo
+                    continue;
+                }
+                nonEmptyCounts[i]++;
+                Set<String> distinct = distinctValues.get(i);
+                if (distinct != null && distinct.add(celda) && distinct.size() > CATEGORICAL_MAX_DISTINCT) {
+                    distinctValues.set(i, null);
+                }
+                if (declared[i] == null) {
+                    types[i] = mergeTypes(types[i], parser.classify(celda));
+                }
+            }
+        }
+
+        /**
+         * Tipo conocido o inferido de cada columna; STRING si no tuvo ningún dato en la muestra.
+         */
+        DataType[] types() {
+            DataType[] result = new DataType[types.length];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = declared[i] != null ? declared[i]
+                        : types[i] == null ? DataType.STRING : types[i];
+            }
+            return result;
+        }
+
+        /**
+         * Decide si una columna STRING conviene guardarla codificada por diccionario:
+         * pocos valores distintos repetidos en muchas filas.
+         */
+        boolean isCategorical(int column, DataType type) {
+            Set<String> distinct = distinctValues.get(column);
+            return type == DataType.STRING
+                    && distinct != null
+                    && nonEmptyCounts[column] > 0
+                    && distinct.size() <= CATEGORICAL_MAX_RATIO * nonEmptyCounts[column];
+        }
+    }
+
+    /**
+     * Tipos de columna que se conocen antes de leer. Los del usuario son estrictos: las celdas
+     * que no entran quedan como NA. Los del esquema guardado junto al CSV son una pista: evitan
+     * clasificar la muestra, pero la columna se sigue ensanchando si aparece un valor que no entra.
+     */
+    private static final class KnownTypes {
+        private final Function<String[], Column[]> resolver;
+        final boolean strict;
+        // Incluye los tipos finales de las columnas del filtro: no hace falta volver a leer
+        private final boolean settled;
+
+        private KnownTypes(Function<String[], Column[]> resolver, boolean strict) {
+            this(resolver, strict, false);
+        }
+
+        private KnownTypes(Function<String[], Column[]> resolver, boolean strict, boolean settled) {
+            this.resolver = resolver;
+            this.strict = strict;
+            this.settled = settled;
+        }
+
+        // Una columna por campo del encabezado, o null en los campos sin tipo conocido
+        Column[] resolve(String[] headers) {
+            return resolver.apply(headers);
+        }
+
+        static KnownTypes of(List<Column> schema) {
+            List<Column> columns = List.copyOf(schema);
+            return new KnownTypes(headers -> {
+                if (columns.size() != headers.length) {
+                    throw new IllegalArgumentException(
+                        "El esquema tiene " + columns.size() + " columnas y el CSV " + headers.length);
+                }
+                return columns.toArray(new Column[0]);
+            }, true);
+        }
 
+        static KnownTypes of(Map<String, DataType> schema) {
+            Map<String, DataType> types = new HashMap<>(schema);
+            for (Map.Entry<String, DataType> entry : types.entrySet()) {
+                Objects.requireNonNull(entry.getValue(), "El tipo de '" + entry.getKey() + "' no puede ser null");
+            }
+            return new KnownTypes(headers -> {
+                Column[] columns = new Column[headers.length];
+                Set<String> found = new HashSet<>();
                 for (int i = 0; i < headers.length; i++) {
-                    if (i < raw.length) {
-                        // parseValue devuelve NA.INSTANCE si raw[i] es null, vacío o solo espacios
-                        parsedRow.add(parseValue(raw[i], inferredTypes.get(i)));
-                    } else {
-                        // Si la fila no tenía tantas columnas, guardar NA
-                        parsedRow.add(NA.INSTANCE);
+                    DataType type = types.get(headers[i]);
+                    if (type != null && found.add(headers[i])) {
+                        columns[i] = new Column(headers[i], type);
+                    }
+                }
+                for (String name : types.keySet()) {
+                    if (!found.contains(name)) {
+                        throw new IllegalArgumentException("La columna '" + name + "' no existe.");
                     }
                 }
+                return columns;
+            }, true);
+        }
 
-                // Construir el objeto Row: index = rowIdx (0-based), lista de valores y lista de etiquetas
-                Row r = new Row(rowIdx, parsedRow, columnLabels);
-                rowMap.put(rowIdx, r);
-            }
+        static boolean isSettled(KnownTypes known) {
+            return known != null && known.settled;
+        }
+
+        /**
+         * Los tipos de known (o ninguno) con el tipo de algunas columnas, por etiqueta,
+         * reemplazado por el que tomaron al leer el archivo entero.
+         */
+        static KnownTypes settled(KnownTypes known, Map<String, DataType> types) {
+            return new KnownTypes(headers -> {
+                Column[] columns = known == null ? new Column[headers.length] : known.resolve(headers);
+                for (int i = 0; i < headers.length; i++) {
+                    String label = columns[i] != null ? columns[i].getLabel() : headers[i];
+                    DataType type = types.get(label);
+                    if (type != null) {
+                        columns[i] = new Column(label, type);
+                    }
+                }
+                return columns;
+            }, known != null && known.strict, true);
+        }
 
-            // 7) Construir y retornar el DataTable con:
-            //    - rowMap: Mapa filaID → Row
-            //    - columnList: Lista de Column (label + tipo)
-            //    - columnTypesMap: Mapa nombreColumna → DataType
-            return new DataTable(rowMap, columnList, columnTypesMap);
+        // Esquema guardado: se usa solo si las etiquetas coinciden con el encabezado actual
+        static KnownTypes hint(List<Column> saved) {
+            return new KnownTypes(headers -> {
+                Column[] columns = new Column[headers.length];
+                if (saved.size() != headers.length) {
+                    return columns;
+                }
+                for (int i = 0; i < headers.length; i++) {
+                    if (!saved.get(i).getLabel().equals(headers[i])) {
+                        return new Column[headers.length];
+                    }
+                    columns[i] = saved.get(i);
+                }
+                return columns;
+            }, false);
         }
     }
 
     /**
-     * parseValue: convierte la cadena raw al objeto correspondiente según DataType.
-     *   - Si raw es null, vacío ("") o "   ", devuelve NA.INSTANCE.
-     *   - Si falla el parseo a INTEGER, DOUBLE o BOOLEAN, también devuelve NA.INSTANCE.
+     * Vista de los campos leídos de un registro en el orden de las columnas del resultado.
+     * Un campo que no llegó a aparecer en el registro se ve como null. Se reutiliza por fila.
      */
-    private Object parseValue(String raw, DataType type) {
-        // 1) Si es null o, tras hacer trim, queda vacío → NA.INSTANCE
-        if (raw == null || raw.trim().isEmpty()) {
-            return NA.INSTANCE;
+    private static final class FieldProjection extends AbstractList<CharSequence> {
+        private final int[] fields;
+        private List<? extends CharSequence> source;
+
+        FieldProjection(int[] fields) {
+            this.fields = fields;
         }
 
-        String v = raw.trim();
-        switch (type) {
-            case INTEGER:
-                try {
-                    return Integer.parseInt(v);
-                } catch (NumberFormatException e) {
-                    System.err.println("Warning: no se pudo parsear '" + v + "' a INTEGER, devuelvo NA");
-                    return NA.INSTANCE;
+        FieldProjection of(List<? extends CharSequence> source) {
+            this.source = source;
+            return this;
+        }
+
+        @Override
+        public CharSequence get(int index) {
+            int field = fields[index];
+            return field < source.size() ? source.get(field) : null;
+        }
+
+        @Override
+        public int size() {
+            return fields.length;
+        }
+    }
+
+    /**
+     * Recorre un CSV (comprimido o no): al crearse lee el encabezado y la muestra,
+     * y después agrega los registros de a uno a los builders que se le pasen, aplicando el
+     * filtro. Lo usan la lectura secuencial y la lectura por lotes.
+     */
+    private final class RecordCursor implements Closeable {
+        private final InputStream in;
+        private final CsvTokenizer tokenizer;
+        private final CellParser parser = new CellParser();
+        private final ScanPlan plan;
+        private final TypeInference inference;
+        // Tipos actuales de las columnas del resultado; se ensanchan a medida que se lee
+        private final DataType[] types;
+        private final FieldProjection row;
+        private final RowFilter rows;
+        private final boolean[] widen;
+        private final ParseDiagnostics diagnostics;
+        private final int sampleSize;
+        // Filas de la muestra que todavía no se agregaron; null cuando se terminan
+        private Iterator<List<String>> sample;
+        // Número del último registro leído (0 = primera fila de datos)
+        private int record = -1;
+        private boolean closed;
+
+        RecordCursor(String filePath, String delimiter, KnownTypes known,
+                     Function<String[], int[]> projection, Filter filter) throws IOException {
+            in = CompressedFiles.openInput(filePath);
+            try {
+                tokenizer = new CsvTokenizer(in, delimiter, Charset.defaultCharset());
+                if (!tokenizer.next()) {
+                    // CSV vacío o sin encabezado
+                    throw new IOException("El CSV no puede estar vacío o no tener encabezado");
                 }
-            case DOUBLE:
-                try {
-                    return Double.parseDouble(v);
-                } catch (NumberFormatException e) {
-                    System.err.println("Warning: no se pudo parsear '" + v + "' a DOUBLE, devuelvo NA");
-                    return NA.INSTANCE;
+                plan = new ScanPlan(tokenizer.fieldStrings(), known, projection, filter);
+                tokenizer.keepFields(plan.keep);
+
+                // Muestra inicial: infiere tipos (si no hay esquema) y decide qué columnas
+                // STRING se codifican por diccionario. Solo se guardan estas filas.
+                List<List<String>> sampleRows = new ArrayList<>();
+                inference = new TypeInference(plan.declared, parser);
+                while (sampleRows.size() < CsvReader.this.sampleRows && tokenizer.next()) {
+                    List<String> values = projectedStrings(tokenizer, plan.scan);
+                    sampleRows.add(values);
+                    inference.observe(values);
                 }
-            case BOOLEAN:
-                if (v.equalsIgnoreCase("true")) {
-                    return true;
-                } else if (v.equalsIgnoreCase("false")) {
-                    return false;
+                DataType[] scanTypes = inference.types();
+                types = Arrays.copyOf(scanTypes, plan.labels.length);
+                widen = plan.widen;
+                row = new FieldProjection(plan.scan);
+                rows = filter == null ? null : new RowFilter(filter, plan, scanTypes);
+                diagnostics = new ParseDiagnostics(Arrays.asList(plan.labels), maxExamples);
+                lastDiagnostics = diagnostics;
+                sampleSize = sampleRows.size();
+                sample = sampleRows.iterator();
+            } catch (IOException | RuntimeException e) {
+                in.close();
+                throw e;
+            }
+        }
+
+        int sampleSize() {
+            return sampleSize;
+        }
+
+        ColumnBuilder[] newBuilders(int expectedSize) {
+            return CsvReader.newBuilders(inference, types, expectedSize, widen);
+        }
+
+        /**
+         * Lee registros hasta agregar a los builders uno que pase el filtro.
+         * @return false si no quedan registros
+         */
+        boolean appendNext(ColumnBuilder[] builders) throws IOException {
+            while (true) {
+                List<? extends CharSequence> values;
+                if (sample != null && sample.hasNext()) {
+                    values = sample.next();
                 } else {
-                    System.err.println("Warning: no se pudo parsear '" + v + "' a BOOLEAN, devuelvo NA");
-                    return NA.INSTANCE;
+                    sample = null;
+                    if (!tokenizer.next()) {
+                        return false;
+                    }
+                    values = row.of(tokenizer.fields());
                 }
-            case STRING:
-            default:
-                // Para STRING, devolver la cadena misma
-                return v;
+                record++;
+                if (rows == null || rows.accept(record, values)) {
+                    appendRow(parser, builders, types, values, widen, inference, diagnostics, record);
+                    return true;
+                }
+            }
+        }
+
+        int record() {
+            return record;
+        }
+
+        DataTable build(ColumnBuilder[] builders, int[] rowIds) {
+            return buildTable(plan.labels, types, builders, rowIds);
+        }
+
+        // Cierra el archivo sin informar las celdas fallidas: lo leído se descarta
+        void discard() throws IOException {
+            if (!closed) {
+                closed = true;
+                in.close();
+            }
+        }
+
+        // Cierra el archivo e informa las celdas fallidas (una sola vez, aunque se cierre de nuevo)
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            in.close();
+            diagnostics.report(logLevel, System.err);
+        }
+    }
+
+    /**
+     * Lotes de a lo sumo batchSize filas, leídos a medida que se piden.
+     */
+    private static final class BatchIterator implements Iterator<DataTable> {
+        private final RecordCursor cursor;
+        private final int batchSize;
+        private DataTable next;
+        private boolean done;
+
+        BatchIterator(RecordCursor cursor, int batchSize) {
+            this.cursor = cursor;
+            this.batchSize = batchSize;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !done) {
+                next = readBatch();
+            }
+            return next != null;
+        }
+
+        @Override
+        public DataTable next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            DataTable batch = next;
+            next = null;
+            return batch;
+        }
+
+        private DataTable readBatch() {
+            ColumnBuilder[] builders = cursor.newBuilders(batchSize);
+            int[] rowIds = new int[batchSize];
+            int count = 0;
+            try {
+                while (count < batchSize && cursor.appendNext(builders)) {
+                    rowIds[count++] = cursor.record();
+                }
+                if (count < batchSize) {
+                    // Fin del archivo: se libera sin esperar a que se cierre el stream
+                    done = true;
+                    cursor.close();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return count == 0 ? null : cursor.build(builders, Arrays.copyOf(rowIds, count));
+        }
+    }
+
+    // Números de registro que se van agregando
+    private static final class RowIdList {
+        private int[] ids = new int[1024];
+        private int size;
+
+        void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+    }
+
+    // Builders y tipos finales de un bloque parseado en paralelo
+    private static final class ChunkResult {
+        final ColumnBuilder[] builders;
+        final DataType[] types;
+        // Filas agregadas a los builders y registros leídos del bloque
+        final int rows;
+        final int records;
+        // Con filtro: número de registro, dentro del bloque, de cada fila agregada
+        final int[] rowIds;
+        // Filtro con el que se juzgaron las filas del bloque, o null sin filtro
+        final RowFilter filter;
+
+        // Celdas fallidas, con números de registro dentro del bloque
+        final ParseDiagnostics diagnostics;
+
+        ChunkResult(ColumnBuilder[] builders, DataType[] types, int rows, int records, int[] rowIds,
+                    RowFilter filter, ParseDiagnostics diagnostics) {
+            this.builders = builders;
+            this.types = types;
+            this.rows = rows;
+            this.records = records;
+            this.rowIds = rowIds;
+            this.filter = filter;
+            this.diagnostics = diagnostics;
         }
     }
 }
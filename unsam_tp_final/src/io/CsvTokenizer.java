@@ -0,0 +1,361 @@
+// CsvTokenizer.java - clase o interfaz de io
+package io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Separa un CSV en registros y campos trabajando sobre bytes, según RFC 4180:
+ *   - un campo que empieza con comillas puede contener el delimitador, saltos de línea
+ *     y comillas escapadas ("" dentro del campo equivale a ");
+ *   - los registros terminan en "\n", "\r\n" o "\r".
+ * Los campos del registro actual se copian, ya sin comillas, a un buffer que se reutiliza;
+ * cada campo es un rango [fieldStart, fieldEnd) de ese buffer, sin crear un String por línea.
+ * Funciona con codificaciones compatibles con ASCII (UTF-8, ISO-8859-1, ...): el delimitador,
+ * las comillas y los saltos de línea son siempre bytes ASCII.
+ * Con keepFields(...) se puede indicar qué campos interesan: los demás se recorren para
+ * encontrar el final del campo, pero no se copian y quedan como campos vacíos.
+ */
+public final class CsvTokenizer {
+    private static final byte QUOTE = '"';
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+    private static final int INPUT_BUFFER = 1 << 16;
+
+    private final InputStream in;
+    private final byte[] delimiter;
+    private final Charset charset;
+
+    // Bytes de entrada aún no procesados: input[pos, limit)
+    private byte[] input;
+    private int pos;
+    private int limit;
+    // Bytes consumidos antes de input[0]
+    private long consumedBefore;
+
+    // Registro actual: contenido de los campos en data y el rango de cada uno
+    private byte[] data = new byte[1024];
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private int fieldCount;
+    // Campos que se copian a data (null = todos)
+    private boolean[] keep;
+    // Si el campo actual se copia
+    private boolean copying;
+    private FieldSlice[] slices = new FieldSlice[0];
+    private final List<CharSequence> fields = new FieldList();
+
+    /**
+     * Tokenizer que lee de un stream a medida que avanza.
+     */
+    public CsvTokenizer(InputStream in, String delimiter, Charset charset) {
+        this(Objects.requireNonNull(in, "in no puede ser null"), new byte[INPUT_BUFFER], 0, 0, delimiter, charset);
+    }
+
+    /**
+     * Tokenizer sobre un bloque de bytes ya leído, entre from (inclusive) y to (exclusive).
+     */
+    public CsvTokenizer(byte[] bytes, int from, int to, String delimiter, Charset charset) {
+        this(null, bytes, from, to, delimiter, charset);
+    }
+
+    private CsvTokenizer(InputStream in, byte[] input, int from, int to, String delimiter, Charset charset) {
+        Objects.requireNonNull(delimiter, "delimiter no puede ser null");
+        this.charset = Objects.requireNonNull(charset, "charset no puede ser null");
+        this.delimiter = delimiter.getBytes(charset);
+        if (this.delimiter.length == 0) {
+            throw new IllegalArgumentException("El delimitador no puede ser vacío");
+        }
+        this.in = in;
+        this.input = input;
+        this.pos = from;
+        this.limit = to;
+        this.consumedBefore = -from;
+    }
+
+    /**
+     * Indica qué campos de los próximos registros se copian al buffer. Los campos con
+     * keep[i] == false, y los que estén más allá del largo del arreglo, quedan vacíos.
+     * @param keep Campos a conservar, o null para conservarlos todos
+     */
+    public void keepFields(boolean[] keep) {
+        this.keep = keep == null ? null : keep.clone();
+    }
+
+    /**
+     * Avanza al siguiente registro.
+     * @return false si no quedan registros
+     */
+    public boolean next() throws IOException {
+        fieldCount = 0;
+        if (pos >= limit && !fill()) {
+            return false;
+        }
+        int length = 0;
+        int fieldStart = 0;
+        boolean quoted = false;     // dentro de un campo entre comillas
+        boolean atFieldStart = true;
+        byte first = delimiter[0];
+        copying = keeps(0);
+        while (true) {
+            if (pos >= limit && !fill()) {
+                // Fin de la entrada: cierra el último campo (aunque tenga comillas sin cerrar)
+                addField(fieldStart, length);
+                return true;
+            }
+            if (quoted) {
+                // Copia en bloque hasta la próxima comilla
+                int end = pos;
+                while (end < limit && input[end] != QUOTE) end++;
+                length = putRange(length, end);
+                if (end == limit) continue;
+                pos++;
+                if ((pos < limit || fill()) && input[pos] == QUOTE) {
+                    // Comilla escapada ""
+                    pos++;
+                    if (copying) length = put(length, QUOTE);
+                } else {
+                    quoted = false;
+                }
+                continue;
+            }
+
+            // Copia en bloque hasta el próximo byte especial
+            int end = pos;
+            while (end < limit) {
+                byte c = input[end];
+                if (c == first || c == LF || c == CR || c == QUOTE) break;
+                end++;
+            }
+            if (end > pos) {
+                length = putRange(length, end);
+                atFieldStart = false;
+                continue;
+            }
+
+            byte b = input[pos++];
+            if (b == first && matchesDelimiter()) {
+                addField(fieldStart, length);
+                fieldStart = length;
+                atFieldStart = true;
+                copying = keeps(fieldCount);
+                continue;
+            } else if (b == LF) {
+                addField(fieldStart, length);
+                return true;
+            } else if (b == CR) {
+                if ((pos < limit || fill()) && input[pos] == LF) {
+                    pos++;
+                }
+                addField(fieldStart, length);
+                return true;
+            } else if (b == QUOTE && atFieldStart) {
+                quoted = true;
+            } else {
+                // Comilla suelta en medio de un campo sin comillas (o delimitador incompleto): se deja tal cual
+                if (copying) length = put(length, b);
+            }
+            atFieldStart = false;
+        }
+    }
+
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * Buffer con el contenido de los campos del registro actual. Se reutiliza: solo es
+     * válido hasta la próxima llamada a next().
+     */
+    public byte[] buffer() {
+        return data;
+    }
+
+    public int fieldStart(int field) {
+        Objects.checkIndex(field, fieldCount);
+        return starts[field];
+    }
+
+    public int fieldEnd(int field) {
+        Objects.checkIndex(field, fieldCount);
+        return ends[field];
+    }
+
+    /**
+     * Campo como CharSequence sobre el buffer, sin copiarlo. Cada byte se ve como un char
+     * (alcanza para números y booleanos); toString() decodifica con el charset del tokenizer.
+     * La vista se reutiliza: solo es válida hasta la próxima llamada a next().
+     */
+    public CharSequence field(int field) {
+        Objects.checkIndex(field, fieldCount);
+        return slices[field];
+    }
+
+    public String fieldString(int field) {
+        return new String(data, fieldStart(field), ends[field] - starts[field], charset);
+    }
+
+    /**
+     * Campos del registro actual como lista de vistas (ver field(int)).
+     */
+    public List<CharSequence> fields() {
+        return fields;
+    }
+
+    public String[] fieldStrings() {
+        String[] values = new String[fieldCount];
+        for (int i = 0; i < fieldCount; i++) {
+            values[i] = fieldString(i);
+        }
+        return values;
+    }
+
+    /**
+     * Bytes de entrada consumidos hasta el final del registro actual.
+     */
+    public long position() {
+        return consumedBefore + pos;
+    }
+
+    private boolean matchesDelimiter() throws IOException {
+        if (delimiter.length == 1) {
+            return true;
+        }
+        // Delimitador de varios bytes: el resto tiene que estar disponible en la entrada
+        for (int k = 1; k < delimiter.length; k++) {
+            if (pos + k - 1 >= limit && !fillKeeping()) {
+                return false;
+            }
+            if (input[pos + k - 1] != delimiter[k]) {
+                return false;
+            }
+        }
+        pos += delimiter.length - 1;
+        return true;
+    }
+
+    private boolean keeps(int field) {
+        return keep == null || (field < keep.length && keep[field]);
+    }
+
+    private int put(int length, byte b) {
+        if (length == data.length) {
+            data = Arrays.copyOf(data, length * 2);
+        }
+        data[length] = b;
+        return length + 1;
+    }
+
+    // Copia input[pos, end) al final de data (si el campo se conserva) y avanza pos
+    private int putRange(int length, int end) {
+        if (!copying) {
+            pos = end;
+            return length;
+        }
+        int count = end - pos;
+        if (length + count > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, length + count));
+        }
+        System.arraycopy(input, pos, data, length, count);
+        pos = end;
+        return length + count;
+    }
+
+    private void addField(int start, int end) {
+        if (fieldCount == starts.length) {
+            starts = Arrays.copyOf(starts, fieldCount * 2);
+            ends = Arrays.copyOf(ends, fieldCount * 2);
+        }
+        if (fieldCount == slices.length) {
+            slices = Arrays.copyOf(slices, Math.max(16, fieldCount * 2));
+            for (int i = fieldCount; i < slices.length; i++) {
+                slices[i] = new FieldSlice(i);
+            }
+        }
+        starts[fieldCount] = start;
+        ends[fieldCount] = end;
+        fieldCount++;
+    }
+
+    // Vuelve a llenar la entrada desde el stream; false si no hay más datos
+    private boolean fill() throws IOException {
+        if (in == null) {
+            return false;
+        }
+        consumedBefore += limit;
+        pos = 0;
+        limit = 0;
+        int read = in.read(input, 0, input.length);
+        if (read <= 0) {
+            return false;
+        }
+        limit = read;
+        return true;
+    }
+
+    // Agrega datos al final de la entrada sin descartar los bytes pendientes (para delimitadores largos)
+    private boolean fillKeeping() throws IOException {
+        if (in == null) {
+            return false;
+        }
+        int pending = limit - pos;
+        byte[] next = input.length - pending < INPUT_BUFFER ? new byte[pending + INPUT_BUFFER] : input;
+        System.arraycopy(input, pos, next, 0, pending);
+        consumedBefore += pos;
+        input = next;
+        pos = 0;
+        limit = pending;
+        int read = in.read(input, limit, input.length - limit);
+        if (read <= 0) {
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+
+    // Vista de un campo del registro actual
+    private final class FieldSlice implements CharSequence {
+        private final int field;
+
+        FieldSlice(int field) {
+            this.field = field;
+        }
+
+        @Override
+        public int length() {
+            return ends[field] - starts[field];
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (data[starts[field] + index] & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new String(data, starts[field] + start, end - start, charset);
+        }
+
+        @Override
+        public String toString() {
+            return fieldString(field);
+        }
+    }
+
+    private final class FieldList extends AbstractList<CharSequence> {
+        @Override
+        public CharSequence get(int index) {
+            return field(index);
+        }
+
+        @Override
+        public int size() {
+            return fieldCount;
+        }
+    }
+}
@@ -1,51 +1,321 @@
 package io;
 
 import io.interfaces.TableWriter;
+import Principal.table.DataTable;
 import Principal.table.Table;
+import Principal.table.storage.BooleanVector;
+import Principal.table.storage.CategoricalVector;
+import Principal.table.storage.ColumnVector;
+import Principal.table.storage.DoubleVector;
+import Principal.table.storage.FloatVector;
+import Principal.table.storage.IntVector;
+import Principal.table.storage.StringVector;
+import utils.concurrent.SharedPools;
+import utils.validation.NA;
 import java.io.BufferedWriter;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
 
+/**
+ * Escribe tablas en CSV. Sobre una DataTable recorre las columnas por posición y formatea
+ * los primitivos directo a un buffer de caracteres que se reutiliza, sin boxing ni un
+ * String por línea. Los valores se escriben igual que con toString() (NA como "NA");
+ * los campos que contienen el delimitador, comillas o saltos de línea van entre comillas
+ * (RFC 4180), así el archivo se puede volver a leer con CsvReader.
+ * Con parallelism mayor a 1, los bloques de filas se formatean en un ForkJoinPool compartido
+ * (SharedPools) y el hilo que llama los escribe en orden: el archivo es el mismo que en secuencial.
+ * Si el nombre del archivo termina en ".gz", la salida se comprime con gzip.
+ */
 public class CsvWriter implements TableWriter {
+    // Filas que se formatean juntas antes de pasarlas al archivo
+    private static final int BLOCK_ROWS = 8192;
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final int parallelism;
+
+    public CsvWriter() {
+        this(1);
+    }
+
+    /**
+     * @param parallelism Hilos para formatear tablas grandes (1 = escritura secuencial)
+     * @throws IllegalArgumentException si parallelism no es positivo
+     */
+    public CsvWriter(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism debe ser positivo");
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Escritor que usa todos los procesadores disponibles para tablas grandes.
+     */
+    public static CsvWriter parallel() {
+        return new CsvWriter(Runtime.getRuntime().availableProcessors());
+    }
 
     @Override
     public void write(Table table, String filePath, String delimiter, boolean withHeader) throws IOException {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
-            List<String> columns = table.getColumnLabels();
-
+        try (BufferedWriter writer = CompressedFiles.openWriter(filePath)) {
             // Escribo encabezado si corresponde
             if (withHeader) {
-                writer.write(String.join(delimiter, columns));
-                writer.newLine();
-            }
-
-            // Escribo todas las filas existentes
-            if (table instanceof Principal.table.DataTable) {
-                for (Integer rowIndex : ((Principal.table.DataTable) table).getRows().keySet()) {
-                    StringBuilder line = new StringBuilder();
-                    for (int c = 0; c < columns.size(); c++) {
-                        Object val = table.getValue(columns.get(c), rowIndex);
-                        line.append(val == null ? "" : val.toString());
-                        if (c < columns.size() - 1) line.append(delimiter);
-                    }
-                    writer.write(line.toString());
-                    writer.newLine();
+                writeHeader(writer, table, delimiter);
+            }
+            writeRows(writer, table, delimiter);
+        }
+    }
+
+    /**
+     * Escribe en un solo archivo los lotes de un stream (por ejemplo CsvReader.readBatches),
+     * de a uno, sin juntarlos en memoria. El encabezado sale del primer lote.
+     */
+    public void write(Stream<? extends Table> batches, String filePath, String delimiter,
+                      boolean withHeader) throws IOException {
+        try (BufferedWriter writer = CompressedFiles.openWriter(filePath)) {
+            Iterator<? extends Table> it = batches.iterator();
+            boolean first = true;
+            while (it.hasNext()) {
+                Table batch = it.next();
+                if (first && withHeader) {
+                    writeHeader(writer, batch, delimiter);
                 }
-            } else {
-                // fallback: por cantidad de filas
-                for (int r = 0; r < table.getRowCount(); r++) {
-                    StringBuilder line = new StringBuilder();
-                    for (int c = 0; c < columns.size(); c++) {
-                        Object val = table.getValue(columns.get(c), r);
-                        line.append(val == null ? "" : val.toString());
-                        if (c < columns.size() - 1) line.append(delimiter);
-                    }
-                    writer.write(line.toString());
-                    writer.newLine();
+                first = false;
+                writeRows(writer, batch, delimiter);
+            }
+        }
+    }
+
+    private static void writeHeader(BufferedWriter writer, Table table, String delimiter) throws IOException {
+        LineFormatter out = new LineFormatter(delimiter);
+        List<String> labels = table.getColumnLabels();
+        for (int c = 0; c < labels.size(); c++) {
+            if (c > 0) out.delimiter();
+            out.text(labels.get(c));
+        }
+        out.endLine();
+        out.writeTo(writer);
+    }
+
+    private void writeRows(BufferedWriter writer, Table table, String delimiter) throws IOException {
+        if (!(table instanceof DataTable)) {
+            // fallback: por cantidad de filas, con los valores que devuelve la tabla
+            List<String> columns = table.getColumnLabels();
+            LineFormatter out = new LineFormatter(delimiter);
+            for (int r = 0; r < table.getRowCount(); r++) {
+                for (int c = 0; c < columns.size(); c++) {
+                    if (c > 0) out.delimiter();
+                    out.value(table.getValue(columns.get(c), r));
                 }
+                out.endLine();
+                if (out.length() >= LineFormatter.FLUSH_CHARS) out.writeTo(writer);
+            }
+            out.writeTo(writer);
+            return;
+        }
+
+        DataTable data = (DataTable) table;
+        int rows = data.getRowCount();
+        if (parallelism > 1 && rows >= 2 * BLOCK_ROWS) {
+            writeParallel(writer, data, delimiter);
+            return;
+        }
+        LineFormatter out = new LineFormatter(delimiter);
+        ColumnVector[] vectors = vectorsOf(data);
+        for (int start = 0; start < rows; start += BLOCK_ROWS) {
+            formatBlock(out, data, vectors, start, Math.min(rows, start + BLOCK_ROWS));
+            out.writeTo(writer);
+        }
+    }
+
+    /**
+     * Formatea bloques de filas en paralelo y los escribe en orden. Hay a lo sumo
+     * 2 * parallelism bloques formateados esperando, así la memoria no depende del tamaño de la tabla.
+     */
+    private void writeParallel(BufferedWriter writer, DataTable data, String delimiter) throws IOException {
+        ColumnVector[] vectors = vectorsOf(data);
+        int rows = data.getRowCount();
+        ForkJoinPool pool = SharedPools.get(parallelism);
+        Deque<Future<char[]>> pending = new ArrayDeque<>();
+        try {
+            for (int start = 0; start < rows || !pending.isEmpty(); start += BLOCK_ROWS) {
+                if (start < rows) {
+                    int from = start;
+                    int to = Math.min(rows, start + BLOCK_ROWS);
+                    pending.addLast(pool.submit(() -> {
+                        LineFormatter out = new LineFormatter(delimiter);
+                        formatBlock(out, data, vectors, from, to);
+                        return out.toCharArray();
+                    }));
+                }
+                if (pending.size() >= 2 * parallelism || start >= rows) {
+                    char[] block = getResult(pending.removeFirst());
+                    writer.write(block, 0, block.length);
+                }
+            }
+        } catch (IOException | RuntimeException | Error e) {
+            // El pool es compartido: no dejar formateando los bloques que ya no se van a escribir
+            for (Future<char[]> block : pending) {
+                block.cancel(true);
+            }
+            throw e;
+        }
+    }
+
+    private static ColumnVector[] vectorsOf(DataTable data) {
+        List<String> columns = data.getColumnLabels();
+        ColumnVector[] vectors = new ColumnVector[columns.size()];
+        for (int c = 0; c < vectors.length; c++) {
+            vectors[c] = data.getColumnVector(columns.get(c));
+        }
+        return vectors;
+    }
+
+    // Filas [from, to) de la tabla, columna por columna según el tipo de cada vector
+    private static void formatBlock(LineFormatter out, DataTable data, ColumnVector[] vectors, int from, int to) {
+        for (int r = from; r < to; r++) {
+            int pos = data.storagePosition(r);
+            for (int c = 0; c < vectors.length; c++) {
+                if (c > 0) out.delimiter();
+                out.cell(vectors[c], pos);
+            }
+            out.endLine();
+        }
+    }
+
+    private static <T> T getResult(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Escritura interrumpida", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Buffer de caracteres donde se arman las líneas. StringBuilder.append de int, double,
+     * float y boolean escribe los dígitos sin crear objetos y con el mismo texto que toString().
+     */
+    private static final class LineFormatter {
+        // A partir de este tamaño conviene pasar el buffer al archivo
+        static final int FLUSH_CHARS = 1 << 16;
+
+        private final String delimiter;
+        // Si el delimitador puede aparecer dentro de un número o booleano (por ejemplo "." o "e")
+        private final boolean checkPrimitives;
+        private final StringBuilder line = new StringBuilder(FLUSH_CHARS);
+        private char[] chars = new char[0];
+
+        LineFormatter(String delimiter) {
+            this.delimiter = delimiter;
+            boolean check = false;
+            for (int i = 0; i < delimiter.length() && !check; i++) {
+                check = "0123456789+-.AEINaefilnrstuy".indexOf(delimiter.charAt(i)) >= 0;
+            }
+            this.checkPrimitives = check;
+        }
+
+        void delimiter() {
+            line.append(delimiter);
+        }
+
+        void endLine() {
+            line.append(LINE_SEPARATOR);
+        }
+
+        void cell(ColumnVector vector, int pos) {
+            if (vector.isNA(pos)) {
+                primitive(NA.INSTANCE.toString());
+                return;
+            }
+            int start = line.length();
+            if (vector instanceof IntVector) {
+                line.append(((IntVector) vector).getInt(pos));
+            } else if (vector instanceof DoubleVector) {
+                line.append(((DoubleVector) vector).getDouble(pos));
+            } else if (vector instanceof FloatVector) {
+                line.append(((FloatVector) vector).getFloat(pos));
+            } else if (vector instanceof BooleanVector) {
+                line.append(((BooleanVector) vector).getBoolean(pos));
+            } else if (vector instanceof CategoricalVector) {
+                text(((CategoricalVector) vector).getString(pos));
+                return;
+            } else if (vector instanceof StringVector) {
+                text(((StringVector) vector).getString(pos));
+                return;
+            } else {
+                value(vector.get(pos));
+                return;
+            }
+            if (checkPrimitives) quoteFrom(start);
+        }
+
+        void value(Object val) {
+            text(val == null ? null : val.toString());
+        }
+
+        void text(String s) {
+            int start = line.length();
+            line.append(s == null ? "" : s);
+            quoteFrom(start);
+        }
+
+        private void primitive(String s) {
+            int start = line.length();
+            line.append(s);
+            if (checkPrimitives) quoteFrom(start);
+        }
+
+        // Si el campo que empieza en start necesita comillas, lo reescribe entre comillas
+        private void quoteFrom(int start) {
+            boolean quote = line.indexOf(delimiter, start) >= 0;
+            for (int i = start; i < line.length() && !quote; i++) {
+                char ch = line.charAt(i);
+                quote = ch == '"' || ch == '\n' || ch == '\r';
+            }
+            if (!quote) return;
+            String field = line.substring(start);
+            line.setLength(start);
+            line.append('"');
+            for (int i = 0; i < field.length(); i++) {
+                char ch = field.charAt(i);
+                if (ch == '"') line.append('"');
+                line.append(ch);
+            }
+            line.append('"');
+        }
+
+        int length() {
+            return line.length();
+        }
+
+        char[] toCharArray() {
+            char[] out = new char[line.length()];
+            line.getChars(0, out.length, out, 0);
+            return out;
+        }
+
+        // Pasa el contenido al writer y vacía el buffer para reutilizarlo
+        void writeTo(BufferedWriter writer) throws IOException {
+            int length = line.length();
+            if (chars.length < length) {
+                chars = new char[length];
             }
+            line.getChars(0, length, chars, 0);
+            writer.write(chars, 0, length);
+            line.setLength(0);
         }
     }
 }
-// CsvWriter.java - clase o interfaz de io
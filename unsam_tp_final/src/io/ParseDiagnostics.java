@@ -0,0 +1,175 @@
+// ParseDiagnostics.java - clase o interfaz de io
+package io;
+
+import utils.enums.DataType;
+import utils.enums.ParseLogLevel;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Celdas que no se pudieron parsear al tipo de su columna durante una lectura: cuántas hubo
+ * por columna y las primeras de cada una con su número de registro (0 = primera fila de datos).
+ * Esas celdas quedan como NA en la tabla. Mientras se lee solo se cuenta; nada se escribe en
+ * consola hasta que la lectura termina, según el ParseLogLevel del lector.
+ */
+public final class ParseDiagnostics {
+    // Ejemplos que se guardan por columna si no se indica otra cantidad
+    public static final int DEFAULT_MAX_EXAMPLES = 5;
+
+    private final List<String> columns;
+    private final int maxExamples;
+    private final long[] failures;
+    // Tipo al que no se pudo parsear cada columna (el último visto)
+    private final DataType[] expectedTypes;
+    private final List<List<Failure>> examples;
+
+    ParseDiagnostics(List<String> columns, int maxExamples) {
+        this.columns = List.copyOf(columns);
+        this.maxExamples = maxExamples;
+        this.failures = new long[columns.size()];
+        this.expectedTypes = new DataType[columns.size()];
+        this.examples = new ArrayList<>(columns.size());
+        for (int i = 0; i < columns.size(); i++) {
+            examples.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Una celda que no se pudo parsear.
+     */
+    public static final class Failure {
+        private final int row;
+        private final String value;
+        private final DataType expected;
+
+        Failure(int row, String value, DataType expected) {
+            this.row = row;
+            this.value = value;
+            this.expected = expected;
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public DataType getExpected() {
+            return expected;
+        }
+
+        @Override
+        public String toString() {
+            return "fila " + row + ": '" + value + "' no es " + expected;
+        }
+    }
+
+    public boolean hasFailures() {
+        return getTotalFailures() > 0;
+    }
+
+    public long getTotalFailures() {
+        long total = 0;
+        for (long count : failures) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * @throws IllegalArgumentException si la columna no es parte de la lectura
+     */
+    public long getFailures(String column) {
+        return failures[indexOf(column)];
+    }
+
+    /**
+     * Primeras celdas fallidas de la columna, en el orden del archivo.
+     * @throws IllegalArgumentException si la columna no es parte de la lectura
+     */
+    public List<Failure> getExamples(String column) {
+        return Collections.unmodifiableList(examples.get(indexOf(column)));
+    }
+
+    /**
+     * Cantidad de celdas fallidas por columna, solo de las columnas que tuvieron alguna.
+     */
+    public Map<String, Long> getFailureCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int i = 0; i < failures.length; i++) {
+            if (failures[i] > 0) {
+                counts.put(columns.get(i), failures[i]);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Escribe el informe en out: nada con OFF o sin errores, una línea por columna con
+     * SUMMARY, y además los ejemplos con VERBOSE.
+     */
+    public void report(ParseLogLevel level, PrintStream out) {
+        Objects.requireNonNull(level, "level no puede ser null");
+        if (level == ParseLogLevel.OFF || !hasFailures()) {
+            return;
+        }
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < failures.length; i++) {
+            if (failures[i] == 0) continue;
+            text.append("Warning: ").append(failures[i]).append(" celdas de '").append(columns.get(i))
+                .append("' no se pudieron parsear a ").append(expectedTypes[i])
+                .append(" y quedaron como NA").append(System.lineSeparator());
+            if (level == ParseLogLevel.VERBOSE) {
+                for (Failure failure : examples.get(i)) {
+                    text.append("  ").append(failure).append(System.lineSeparator());
+                }
+            }
+        }
+        // Un solo write: el informe no se intercala con otras salidas
+        out.print(text);
+    }
+
+    @Override
+    public String toString() {
+        return "ParseDiagnostics" + getFailureCounts();
+    }
+
+    void record(int column, int row, CharSequence value, DataType expected) {
+        expectedTypes[column] = expected;
+        if (failures[column]++ < maxExamples) {
+            examples.get(column).add(new Failure(row, value.toString().trim(), expected));
+        }
+    }
+
+    /**
+     * Suma los errores de other, cuyos números de registro empiezan en rowOffset.
+     */
+    void merge(ParseDiagnostics other, int rowOffset) {
+        for (int i = 0; i < failures.length; i++) {
+            failures[i] += other.failures[i];
+            if (other.expectedTypes[i] != null) {
+                expectedTypes[i] = other.expectedTypes[i];
+            }
+            for (Failure failure : other.examples.get(i)) {
+                if (examples.get(i).size() >= maxExamples) break;
+                examples.get(i).add(new Failure(failure.row + rowOffset, failure.value, failure.expected));
+            }
+        }
+    }
+
+    private int indexOf(String column) {
+        int index = columns.indexOf(column);
+        if (index < 0) {
+            throw new IllegalArgumentException("La columna '" + column + "' no existe.");
+        }
+        return index;
+    }
+}
@@ -0,0 +1,134 @@
+// ReadAheadInputStream.java - clase o interfaz de io
+package io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * InputStream que lee su fuente en otro hilo, de a bloques, y los deja en una cola acotada.
+ * Sirve para que un trabajo caro de la fuente (por ejemplo descomprimir gzip) avance al
+ * mismo tiempo que el consumidor procesa los bloques anteriores.
+ * Los errores de la fuente se relanzan en el hilo que lee, en el punto donde ocurrieron.
+ */
+final class ReadAheadInputStream extends InputStream {
+    // Bloques leídos por adelantado como máximo
+    private static final int QUEUE_BLOCKS = 4;
+    // Marca de fin de la fuente (por error o porque se terminó)
+    private static final byte[] END = new byte[0];
+
+    private final BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(QUEUE_BLOCKS);
+    private final Thread reader;
+    private volatile IOException failure;
+    private volatile boolean closed;
+
+    private byte[] block = new byte[0];
+    private int pos;
+    private boolean finished;
+
+    ReadAheadInputStream(InputStream source, int blockSize, String threadName) {
+        Objects.requireNonNull(source, "source no puede ser null");
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("blockSize debe ser positivo");
+        }
+        reader = new Thread(() -> pump(source, blockSize), threadName);
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    // Hilo de lectura: llena la cola hasta el final de la fuente o hasta que se cierre el stream
+    private void pump(InputStream source, int blockSize) {
+        try (InputStream in = source) {
+            while (!closed) {
+                byte[] data = new byte[blockSize];
+                int read = in.readNBytes(data, 0, blockSize);
+                if (read == 0) {
+                    break;
+                }
+                queue.put(read == blockSize ? data : Arrays.copyOf(data, read));
+            }
+        } catch (IOException e) {
+            failure = e;
+        } catch (RuntimeException e) {
+            failure = new IOException(e.getMessage(), e);
+        } catch (InterruptedException e) {
+            // close() interrumpe el hilo: nadie va a leer la marca de fin
+            return;
+        }
+        try {
+            queue.put(END);
+        } catch (InterruptedException e) {
+            // Cerrado mientras esperaba lugar en la cola
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureData()) {
+            return -1;
+        }
+        return block[pos++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        if (len == 0) {
+            return 0;
+        }
+        if (!ensureData()) {
+            return -1;
+        }
+        int count = Math.min(len, block.length - pos);
+        System.arraycopy(block, pos, b, off, count);
+        pos += count;
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return block.length - pos;
+    }
+
+    // Trae el próximo bloque si se terminó el actual; false al final de la fuente
+    private boolean ensureData() throws IOException {
+        if (closed) {
+            throw new IOException("El stream está cerrado");
+        }
+        while (pos == block.length) {
+            if (finished) {
+                return false;
+            }
+            byte[] next;
+            try {
+                next = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Lectura interrumpida", e);
+            }
+            if (next == END) {
+                finished = true;
+                if (failure != null) {
+                    throw new IOException(failure.getMessage(), failure);
+                }
+                return false;
+            }
+            block = next;
+            pos = 0;
+        }
+        return true;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        reader.interrupt();
+        queue.clear();
+    }
+}
@@ -0,0 +1,82 @@
+// SchemaFile.java - clase o interfaz de io
+package io;
+
+import Principal.table.Column;
+import utils.enums.DataType;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Esquema de un CSV guardado en un archivo de texto al lado, una columna por línea:
+ * etiqueta, tabulador y DataType. Las líneas que empiezan con '#' son comentarios.
+ */
+final class SchemaFile {
+    private static final String COMMENT = "# Esquema inferido por CsvReader: etiqueta<TAB>tipo";
+
+    private SchemaFile() { }
+
+    /**
+     * Columnas guardadas, o null si el archivo no existe o no tiene el formato esperado
+     * (en ese caso se vuelve a inferir, como si no hubiera esquema guardado).
+     */
+    static List<Column> read(String schemaPath) {
+        Path path = Paths.get(schemaPath);
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try {
+            List<Column> columns = new ArrayList<>();
+            for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                int tab = line.lastIndexOf('\t');
+                if (tab < 0) {
+                    return null;
+                }
+                columns.add(new Column(line.substring(0, tab), DataType.valueOf(line.substring(tab + 1))));
+            }
+            return columns;
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Guarda las columnas si cambiaron respecto de lo que ya tiene el archivo. Las etiquetas
+     * con tabuladores o saltos de línea no se pueden guardar en este formato: no se escribe nada.
+     */
+    static void write(String schemaPath, List<Column> columns) throws IOException {
+        List<String> lines = new ArrayList<>(columns.size() + 1);
+        lines.add(COMMENT);
+        for (Column column : columns) {
+            String label = column.getLabel();
+            if (label.indexOf('\t') >= 0 || label.indexOf('\n') >= 0 || label.indexOf('\r') >= 0) {
+                return;
+            }
+            lines.add(label + "\t" + column.getType().name());
+        }
+        if (sameColumns(columns, read(schemaPath))) {
+            return;
+        }
+        Files.write(Paths.get(schemaPath), lines, StandardCharsets.UTF_8);
+    }
+
+    private static boolean sameColumns(List<Column> a, List<Column> b) {
+        if (b == null || a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.size(); i++) {
+            if (!a.get(i).getLabel().equals(b.get(i).getLabel()) || a.get(i).getType() != b.get(i).getType()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,8 +1,37 @@
 // TableReader.java - clase o interfaz de io
 package io.interfaces;
+import Principal.table.Column;
 import Principal.table.DataTable;
+import utils.enums.DataType;
 import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
 
 public interface TableReader {
     public DataTable read(String filePath, String delimiter) throws IOException;
-}
\ No newline at end of file
+
+    /**
+     * Lee solo las columnas indicadas, en ese orden. Las demás no se parsean ni se guardan.
+     * @throws IllegalArgumentException si alguna columna no existe en el archivo
+     */
+    public DataTable read(String filePath, String delimiter, Collection<String> columnNames) throws IOException;
+
+    /**
+     * Lee solo las columnas cuyo nombre cumple el predicado, en el orden del archivo.
+     */
+    public DataTable read(String filePath, String delimiter, Predicate<String> columnFilter) throws IOException;
+
+    /**
+     * Lee con los tipos indicados, sin inferirlos: una columna por campo, en el orden del archivo.
+     * @throws IllegalArgumentException si el esquema no coincide con las columnas del archivo
+     */
+    public DataTable read(String filePath, String delimiter, List<Column> schema) throws IOException;
+
+    /**
+     * Lee con el tipo indicado para cada columna nombrada; las demás se leen como siempre.
+     * @throws IllegalArgumentException si alguna columna nombrada no existe en el archivo
+     */
+    public DataTable read(String filePath, String delimiter, Map<String, DataType> schema) throws IOException;
+}
@@ -0,0 +1,32 @@
+// SharedPools.java - clase o interfaz de utils
+package utils.concurrent;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * ForkJoinPool compartidos para las operaciones en paralelo (filtrado, lectura y escritura
+ * de CSV). Crear un pool en cada llamada cuesta levantar sus hilos cada vez; acá se crea uno
+ * por cantidad de hilos pedida, la primera vez, y se reutiliza. Si la cantidad coincide con
+ * la del pool común se usa ForkJoinPool.commonPool(). Los hilos de los pools son daemon y
+ * terminan solos cuando quedan ociosos, así que no hay que cerrarlos.
+ */
+public final class SharedPools {
+    private static final ConcurrentHashMap<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<>();
+
+    private SharedPools() { }
+
+    /**
+     * Pool con parallelism hilos, compartido entre llamadas.
+     * @throws IllegalArgumentException si parallelism no es positivo
+     */
+    public static ForkJoinPool get(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism debe ser positivo");
+        }
+        if (parallelism == ForkJoinPool.getCommonPoolParallelism()) {
+            return ForkJoinPool.commonPool();
+        }
+        return POOLS.computeIfAbsent(parallelism, ForkJoinPool::new);
+    }
+}
@@ -0,0 +1,10 @@
+// IndexKind.java - clase o interfaz de utils
+package utils.enums;
+
+/**
+ * Tipos de índice que se pueden crear sobre una columna (DataTable.createIndex).
+ */
+public enum IndexKind {
+    HASH,   // posiciones por valor: consultas EQ / EN
+    SORTED  // posiciones ordenadas por valor: rangos GT / LT / GE / LE
+}
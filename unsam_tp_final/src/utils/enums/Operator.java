@@ -7,5 +7,13 @@ public enum Operator {
     GT, // mayor que
     LT, // menor que
     GE, // mayor o igual que
-    LE // menor o igual que 
-}
\ No newline at end of file
+    LE, // menor o igual que 
+    IN,          // igual a alguno de los valores de una colección
+    NOT_IN,      // distinto de todos los valores de una colección
+    BETWEEN,     // entre [desde, hasta] de una lista de dos valores, ambos incluidos
+    STARTS_WITH, // el texto empieza con la cadena
+    CONTAINS,    // el texto contiene la cadena
+    MATCHES,     // el texto completo cumple la expresión regular
+    IS_NA,       // la celda es NA (no usa valor de comparación)
+    NOT_NA       // la celda no es NA (no usa valor de comparación)
+}
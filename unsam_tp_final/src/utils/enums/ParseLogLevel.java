@@ -0,0 +1,11 @@
+// ParseLogLevel.java - clase o interfaz de utils
+package utils.enums;
+
+/**
+ * Cuánto informa un lector sobre las celdas que no pudo parsear, al terminar la lectura.
+ */
+public enum ParseLogLevel {
+    OFF,     // nada: los errores quedan solo en ParseDiagnostics
+    SUMMARY, // una línea por columna con errores
+    VERBOSE  // además, los ejemplos guardados de cada columna
+}